@@ -1,8 +1,13 @@
 import functions.*;
 import functions.basic.*;
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
 import java.util.Random;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 import threads.*;
 
 public class Main {
@@ -20,6 +25,29 @@ public class Main {
         System.out.println("\n\t\t Генерирование и решение Task-ов c помощью Generator и Integrator\n");
         complicatedThreads();
 
+        //System.out.println("\n\t\t Решение Task-ов конвейером из нескольких генераторов и интеграторов\n");
+        //pipelineThreads();
+
+        //System.out.println("\n\t\t Передача Task-ов через кольцевой буфер без блокировок\n");
+        //ringThreads();
+
+        //System.out.println("\n\t\t Асинхронное интегрирование через IntegrationService\n");
+        //serviceThreads();
+
+        //System.out.println("\n\t\t Генерирование и решение Task-ов блоками\n");
+        //batchThreads();
+
+        //System.out.println("\n\t\t Продолжение пакета Task-ов по журналу после остановки\n");
+        //checkpointThreads();
+
+        //System.out.println("\n\t\t Проверка продолжения по журналу с пропусками\n");
+        //checkpointGapThreads();
+
+        //System.out.println("\n\t\t Воспроизводимая нагрузка и повтор из файла заданий\n");
+        //workloadThreads();
+
+        //System.out.println("\n\t\t Распределенное интегрирование в нескольких процессах\n");
+        //distributedThreads();
     }
 
     public static void Intergral(){
@@ -85,30 +113,228 @@ public class Main {
     }
 
     public static void complicatedThreads() throws InterruptedException{
-        Task task = new Task();
-        task.setTaskCount(100);
-        Semaphore dataReady = new Semaphore(0);
-        Semaphore dataProcessed = new Semaphore(1);
+        TaskPipeline pipeline = new TaskPipeline(100);
 
-        Generator generator = new Generator(task, dataReady, dataProcessed);
-        Integrator integrator = new Integrator(task, dataReady, dataProcessed);
+        PipelineMetrics metrics = new PipelineMetrics();
+        pipeline.setMetrics(metrics);
         
+        pipeline.start();
+        TaskPipeline.Report report = pipeline.awaitCompletion();
+
+        AsyncResultSink.console().flush();
+        System.out.println("Итог: " + report);
+        System.out.println("Метрики: " + metrics.snapshot());
+    }
+
+    public static void checkpointThreads() throws InterruptedException, IOException {
+        Path journalFile = Files.createTempFile("tasks", ".journal");
+        Files.delete(journalFile);
+        long seed = 42;
+
+        // Первый запуск останавливается досрочно, второй выполняет только оставшиеся задания
+        try (CheckpointJournal journal = CheckpointJournal.open(journalFile, 256)) {
+            TaskPipeline pipeline = new TaskPipeline(1000, AsyncResultSink.console(), seed);
+            pipeline.setJournal(journal);
+            pipeline.start();
+            while (pipeline.getIntegrator().getCompletedCount() < 500) {
+                Thread.sleep(1);
+            }
+            System.out.println("Остановка: " + pipeline.shutdown(1, TimeUnit.SECONDS));
+        }
+        try (CheckpointJournal journal = CheckpointJournal.open(journalFile, 256)) {
+            TaskPipeline pipeline = new TaskPipeline(1000, AsyncResultSink.console(), seed);
+            pipeline.setJournal(journal);
+            pipeline.start();
+            System.out.println("Продолжение: " + pipeline.awaitCompletion());
+        }
+        AsyncResultSink.console().flush();
+        Files.delete(journalFile);
+    }
+
+    // Журнал с пропусками (завершены нечетные задания) в отличие от журнала после остановки
+    // чередует пропускаемые и выполняемые задания; результаты продолжения сравниваются
+    // с полным запуском с тем же seed
+    public static void checkpointGapThreads() throws InterruptedException, IOException {
+        int taskCount = 20000;
+        long seed = 7;
+        double[] expected = new double[taskCount];
+        TaskPipeline reference = new TaskPipeline(taskCount, new ResultCollector(expected), seed);
+        reference.start();
+        reference.awaitCompletion();
+
+        Path journalFile = Files.createTempFile("tasks", ".journal");
+        Files.delete(journalFile);
+        try (CheckpointJournal journal = CheckpointJournal.open(journalFile, 256)) {
+            for (int i = 1; i < taskCount; i += 2) {
+                journal.recordResult(i, expected[i]);
+            }
+        }
+        try (CheckpointJournal journal = CheckpointJournal.open(journalFile, 256)) {
+            TaskPipeline pipeline = new TaskPipeline(taskCount, new ResultCollector(new double[taskCount]), seed);
+            pipeline.setJournal(journal);
+            pipeline.start();
+            System.out.println("Продолжение: " + pipeline.awaitCompletion());
+        }
+        int[] mismatches = new int[1];
+        int records = CheckpointJournal.replay(journalFile, (taskId, result, failed) -> {
+            if (failed || Double.compare(result, expected[(int) taskId]) != 0) {
+                mismatches[0]++;
+            }
+        });
+        System.out.printf("Записей в журнале: %d из %d, несовпадений с полным запуском: %d\n",
+            records, taskCount, mismatches[0]);
+        Files.delete(journalFile);
+    }
+
+    // Результаты интегрирования по номерам заданий, без вывода
+    private static final class ResultCollector implements ResultSink {
+        private final double[] results;
+
+        ResultCollector(double[] results) {
+            this.results = results;
+        }
+
+        @Override
+        public void taskGenerated(String source, long index, Function function, double leftBorder,
+                                  double rightBorder, double step) {
+        }
+
+        @Override
+        public void taskIntegrated(String source, long index, double leftBorder, double rightBorder, double step,
+                                   double result) {
+            results[(int) index] = result;
+        }
+
+        @Override
+        public void taskFailed(String source, long index, String message) {
+            results[(int) index] = Double.NaN;
+        }
+
+        @Override
+        public void message(String text) {
+        }
+
+        @Override
+        public void flush() {
+        }
+    }
+
+    public static void workloadThreads() throws InterruptedException, IOException {
+        Workload workload = new Workload(42)
+            .setMix(1, 1, 1, 2)
+            .setTreeDepth(3)
+            .setStep(Workload.Distribution.logUniform(0.001, 0.1));
+        int taskCount = 1000;
+
+        // Результаты не зависят от количества потоков
+        for (int integrators = 1; integrators <= 4; integrators *= 2) {
+            double[] sum = new double[1];
+            new IntegrationPipeline(1, integrators, 64, true).run(taskCount, workload, result -> {
+                if (result.isSuccessful()) {
+                    sum[0] += result.getValue();
+                }
+            });
+            System.out.printf("Интеграторов: %d, сумма результатов: %.9f\n", integrators, sum[0]);
+        }
+
+        Path taskFile = Files.createTempFile("workload", ".tasks");
+        TaskFile.write(taskFile, workload, taskCount);
+        TaskFile replay = TaskFile.read(taskFile);
+        double[] sum = new double[1];
+        new IntegrationPipeline(true).run(replay.size(), replay, result -> {
+            if (result.isSuccessful()) {
+                sum[0] += result.getValue();
+            }
+        });
+        System.out.printf("Из файла (%d байт): сумма результатов: %.9f\n", Files.size(taskFile), sum[0]);
+        Files.delete(taskFile);
+    }
+
+    public static void distributedThreads() throws InterruptedException, IOException {
+        Workload workload = new Workload(42).setMix(1, 1, 1, 2);
+        try (DistributedCoordinator coordinator = new DistributedCoordinator(0)) {
+            List<Process> workers = coordinator.startLocalWorkers(Runtime.getRuntime().availableProcessors());
+            DistributedCoordinator.Summary summary = coordinator.run(10000, workload, result -> {
+                if (!result.isSuccessful()) {
+                    System.out.println(result);
+                }
+            });
+            System.out.println("Итог: " + summary);
+            for (Process worker : workers) {
+                worker.waitFor();
+            }
+        }
+    }
+
+    public static void pipelineThreads() throws InterruptedException {
+        IntegrationPipeline pipeline = new IntegrationPipeline(true);
+        pipeline.run(100, new RandomTaskFactory(), result -> System.out.println(result));
+    }
+
+    public static void ringThreads() throws InterruptedException {
+        int taskCount = 100;
+        SpscRingBuffer<TaskSlot> ring = new SpscRingBuffer<>(64, TaskSlot::new, SpscRingBuffer.YIELD);
+        RandomTaskFactory factory = new RandomTaskFactory();
+
+        Thread generator = new Thread(() -> {
+            try {
+                for (int i = 0; i < taskCount; i++) {
+                    IntegrationTask task = factory.createTask(i);
+                    long sequence = ring.next();
+                    ring.get(sequence).set(i, task.getFunction(), task.getLeftBorder(), task.getRightBorder(), task.getStep());
+                    ring.publish(sequence);
+                }
+            } catch (InterruptedException e) {
+                System.out.println("Generator прерван");
+            }
+        });
         generator.start();
-        integrator.start();
 
-        try {
+        long next = 0;
+        while (next < taskCount) {
+            long available = ring.waitFor(next);
+            for (long sequence = next; sequence <= available; sequence++) {
+                TaskSlot slot = ring.get(sequence);
+                try {
+                    System.out.printf("(Integrator %d) на [%.6f, %.6f], шаг=%.6f result = %.6f \n",
+                        slot.getId(), slot.getLeftBorder(), slot.getRightBorder(), slot.getStep(), slot.integrate());
+                } catch (IllegalArgumentException e) {
+                    System.out.printf("(Integrator %d) ОШИБКА вычисления: %s\n", slot.getId(), e.getMessage());
+                }
+            }
+            ring.release(available);
+            next = available + 1;
+        }
+        generator.join();
+    }
+
+    public static void serviceThreads() {
+        try (IntegrationService service = new IntegrationService(16)) {
+            CompletableFuture<Double> exp = service.submit(new Exp(), 0, 1, 1e-4);
+            CompletableFuture<Double> sin = service.submit(new Sin(), 0, Math.PI, 1e-4);
+            CompletableFuture<Double> slow = service.submit(new Exp(), 0, 1, 1e-10, 100, TimeUnit.MILLISECONDS);
+
+            System.out.printf("exp на [0, 1] = %.7f\n", exp.join());
+            System.out.printf("sin на [0, pi] = %.7f\n", sin.join());
+            slow.handle((result, error) -> error != null ? "прервано: " + error : "результат " + result)
+                .thenAccept(System.out::println)
+                .join();
+        }
+    }
+
+    public static void batchThreads() throws InterruptedException {
+        int taskCount = 100;
+        TaskBatch[] buffers = { new TaskBatch(16), new TaskBatch(16) };
+        Semaphore dataReady = new Semaphore(0);
+        Semaphore dataProcessed = new Semaphore(buffers.length);
+
+        BatchGenerator generator = new BatchGenerator(buffers, dataReady, dataProcessed, taskCount);
+        BatchIntegrator integrator = new BatchIntegrator(buffers, dataReady, dataProcessed, taskCount);
+
+        generator.start();
+        integrator.start();
 
-        Thread.sleep(50);
-        
-        generator.interrupt();
-        integrator.interrupt();
-        
         generator.join();
         integrator.join();
-            
-        } catch (InterruptedException e) {
-            System.out.println("Main был остановлен");
-        }
     }
 }
-    
\ No newline at end of file
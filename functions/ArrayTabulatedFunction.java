@@ -81,6 +81,25 @@ public class ArrayTabulatedFunction implements TabulatedFunction, Externalizable
         }
     }
 
+    // Конструктор из массивов координат для загрузчиков: точки создаются один раз, без промежуточных копий.
+    // Ячейки массива после pointsCount остаются пустыми и заполняются при добавлении точек
+    ArrayTabulatedFunction(double[] xValues, double[] yValues, int pointsCount) throws IllegalArgumentException {
+        if (pointsCount < 2) {
+            throw new IllegalArgumentException("Количество точек должно быть не менее 2, получено: " + pointsCount);
+        }
+        for (int i = 1; i < pointsCount; i++) {
+            if (xValues[i] < xValues[i - 1] - EPSILON) {
+                throw new IllegalArgumentException("Массив не упорядочен по координатам X");
+            }
+        }
+
+        points = new FunctionPoint[Math.max(pointsCount * 2, DEFAULT_CAPACITY)];
+        this.pointsCount = pointsCount;
+        for (int i = 0; i < pointsCount; i++) {
+            points[i] = new FunctionPoint(xValues[i], yValues[i]);
+        }
+    }
+
     // Инициализация массива
     private void initArrays(int capacity) {
         points = new FunctionPoint[capacity];
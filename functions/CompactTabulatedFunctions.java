@@ -0,0 +1,335 @@
+package functions;
+
+import java.io.*;
+
+// Компактный версионированный двоичный формат табулированных функций.
+//
+// Заголовок: MAGIC (int), VERSION (byte), флаги (byte), количество точек (int),
+// при FLAG_UNIFORM_GRID дополнительно левая и правая границы сетки (double).
+// Далее битовый поток точек в порядке возрастания индекса. При FLAG_XOR_VALUES
+// каждая координата кодируется XOR с предыдущим значением той же координаты
+// (схема Gorilla), иначе пишется как 64 бита. Для равномерной сетки X не хранятся.
+public final class CompactTabulatedFunctions {
+    public static final int MAGIC = 0x54414246; // "TABF"
+    public static final int VERSION = 1;
+
+    public static final int FLAG_UNIFORM_GRID = 1;
+    public static final int FLAG_XOR_VALUES = 1 << 1;
+    private static final int KNOWN_FLAGS = FLAG_UNIFORM_GRID | FLAG_XOR_VALUES;
+
+    // Насколько ulp может отличаться правая граница при подборе равномерной сетки
+    private static final int UNIFORM_SEARCH_ULPS = 4;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private CompactTabulatedFunctions() {
+    }
+
+    public static void outputTabulatedFunction(TabulatedFunction function, OutputStream out) throws IOException {
+        int pointsCount = function.getPointsCount();
+        double[] xValues = new double[pointsCount];
+        for (int i = 0; i < pointsCount; i++) {
+            xValues[i] = function.getPointX(i);
+        }
+        double rightX = findUniformRightBorder(xValues, pointsCount);
+        boolean uniform = !Double.isNaN(rightX);
+
+        DataOutputStream header = new DataOutputStream(out);
+        header.writeInt(MAGIC);
+        header.writeByte(VERSION);
+        header.writeByte((uniform ? FLAG_UNIFORM_GRID : 0) | FLAG_XOR_VALUES);
+        header.writeInt(pointsCount);
+        if (uniform) {
+            header.writeDouble(xValues[0]);
+            header.writeDouble(rightX);
+        }
+
+        BitOutput bits = new BitOutput(out);
+        XorEncoder xEncoder = new XorEncoder();
+        XorEncoder yEncoder = new XorEncoder();
+        for (int i = 0; i < pointsCount; i++) {
+            if (!uniform) {
+                xEncoder.encode(bits, Double.doubleToRawLongBits(xValues[i]));
+            }
+            yEncoder.encode(bits, Double.doubleToRawLongBits(function.getPointY(i)));
+        }
+        bits.finish();
+        out.flush();
+    }
+
+    public static TabulatedFunction inputTabulatedFunction(InputStream in) throws IOException {
+        Decoder decoder = new Decoder(in);
+        int pointsCount = decoder.getPointsCount();
+        double[] xValues = new double[pointsCount];
+        double[] yValues = new double[pointsCount];
+        for (int i = 0; decoder.next(); i++) {
+            xValues[i] = decoder.getX();
+            yValues[i] = decoder.getY();
+        }
+        return new ArrayTabulatedFunction(xValues, yValues, pointsCount);
+    }
+
+    // Правая граница, по которой X восстанавливаются побитово точно как leftX + i * step
+    // (та же формула, что и в TabulatedFunctions.tabulate), либо NaN, если сетка неравномерна
+    private static double findUniformRightBorder(double[] xValues, int pointsCount) {
+        if (pointsCount < 2) {
+            return Double.NaN;
+        }
+        double leftX = xValues[0];
+        double last = xValues[pointsCount - 1];
+        for (int ulps = 0; ulps <= UNIFORM_SEARCH_ULPS; ulps++) {
+            double up = last;
+            double down = last;
+            for (int k = 0; k < ulps; k++) {
+                up = Math.nextUp(up);
+                down = Math.nextDown(down);
+            }
+            if (matchesUniformGrid(xValues, pointsCount, leftX, up)) {
+                return up;
+            }
+            if (ulps > 0 && matchesUniformGrid(xValues, pointsCount, leftX, down)) {
+                return down;
+            }
+        }
+        return Double.NaN;
+    }
+
+    private static boolean matchesUniformGrid(double[] xValues, int pointsCount, double leftX, double rightX) {
+        double step = (rightX - leftX) / (pointsCount - 1);
+        for (int i = 0; i < pointsCount; i++) {
+            if (Double.doubleToRawLongBits(xValues[i]) != Double.doubleToRawLongBits(leftX + i * step)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Потоковый декодер: точки читаются по одной, память не зависит от их количества.
+    // Входной поток читается с упреждением, поэтому данные после таблицы могут быть поглощены
+    public static final class Decoder {
+        private final BitInput bits;
+        private final int flags;
+        private final int pointsCount;
+        private final double leftX;
+        private final double step;
+        private final XorDecoder xDecoder = new XorDecoder();
+        private final XorDecoder yDecoder = new XorDecoder();
+        private int index = -1;
+        private double x;
+        private double y;
+
+        public Decoder(InputStream in) throws IOException {
+            DataInputStream header = new DataInputStream(in);
+            int magic = header.readInt();
+            if (magic != MAGIC) {
+                throw new StreamCorruptedException("Поток не содержит табулированную функцию в компактном формате");
+            }
+            int version = header.readUnsignedByte();
+            if (version != VERSION) {
+                throw new StreamCorruptedException("Неподдерживаемая версия формата: " + version);
+            }
+            flags = header.readUnsignedByte();
+            if ((flags & ~KNOWN_FLAGS) != 0) {
+                throw new StreamCorruptedException("Неизвестные флаги формата: " + Integer.toBinaryString(flags));
+            }
+            pointsCount = header.readInt();
+            if (pointsCount < 0) {
+                throw new StreamCorruptedException("Некорректное количество точек: " + pointsCount);
+            }
+            if ((flags & FLAG_UNIFORM_GRID) != 0) {
+                leftX = header.readDouble();
+                double rightX = header.readDouble();
+                step = (rightX - leftX) / (pointsCount - 1);
+            } else {
+                leftX = Double.NaN;
+                step = Double.NaN;
+            }
+            bits = new BitInput(in);
+        }
+
+        public int getPointsCount() {
+            return pointsCount;
+        }
+
+        public boolean isUniformGrid() {
+            return (flags & FLAG_UNIFORM_GRID) != 0;
+        }
+
+        public boolean hasNext() {
+            return index + 1 < pointsCount;
+        }
+
+        // Переход к следующей точке; false, если точки закончились
+        public boolean next() throws IOException {
+            if (!hasNext()) {
+                return false;
+            }
+            index++;
+            boolean xor = (flags & FLAG_XOR_VALUES) != 0;
+            if (isUniformGrid()) {
+                x = leftX + index * step;
+            } else {
+                x = Double.longBitsToDouble(xor ? xDecoder.decode(bits) : bits.read(64));
+            }
+            y = Double.longBitsToDouble(xor ? yDecoder.decode(bits) : bits.read(64));
+            return true;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public double getX() {
+            return x;
+        }
+
+        public double getY() {
+            return y;
+        }
+    }
+
+    // ==================== XOR-кодирование последовательных значений ====================
+
+    // Управляющие биты: 0 - значение не изменилось; 10 - значащие биты помещаются
+    // в окно предыдущего значения; 11 - новое окно (5 бит ведущих нулей, 6 бит длины - 1)
+    private static final class XorEncoder {
+        private boolean first = true;
+        private long previous;
+        private int leading = -1;
+        private int trailing;
+
+        void encode(BitOutput out, long value) throws IOException {
+            if (first) {
+                first = false;
+                previous = value;
+                out.write(value, 64);
+                return;
+            }
+            long xor = value ^ previous;
+            previous = value;
+            if (xor == 0) {
+                out.write(0, 1);
+                return;
+            }
+            int lead = Math.min(Long.numberOfLeadingZeros(xor), 31);
+            int trail = Long.numberOfTrailingZeros(xor);
+            if (leading >= 0 && lead >= leading && trail >= trailing) {
+                out.write(0b10, 2);
+                out.write(xor >>> trailing, 64 - leading - trailing);
+            } else {
+                int length = 64 - lead - trail;
+                out.write(0b11, 2);
+                out.write(lead, 5);
+                out.write(length - 1, 6);
+                out.write(xor >>> trail, length);
+                leading = lead;
+                trailing = trail;
+            }
+        }
+    }
+
+    private static final class XorDecoder {
+        private boolean first = true;
+        private long previous;
+        private int leading;
+        private int trailing;
+
+        long decode(BitInput in) throws IOException {
+            if (first) {
+                first = false;
+                previous = in.read(64);
+                return previous;
+            }
+            if (in.read(1) == 0) {
+                return previous;
+            }
+            if (in.read(1) != 0) {
+                leading = (int) in.read(5);
+                int length = (int) in.read(6) + 1;
+                trailing = 64 - leading - length;
+            }
+            long xor = in.read(64 - leading - trailing) << trailing;
+            previous ^= xor;
+            return previous;
+        }
+    }
+
+    // ==================== Побитовый ввод-вывод ====================
+
+    private static final class BitOutput {
+        private final OutputStream out;
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+        private int position;
+        private long accumulator;
+        private int count;
+
+        BitOutput(OutputStream out) {
+            this.out = out;
+        }
+
+        // Запись младших n бит значения (1 <= n <= 64), старшими битами вперед
+        void write(long value, int n) throws IOException {
+            if (n > 32) {
+                write(value >>> 32, n - 32);
+                n = 32;
+            }
+            accumulator = (accumulator << n) | (value & ((1L << n) - 1));
+            count += n;
+            while (count >= 8) {
+                count -= 8;
+                buffer[position++] = (byte) (accumulator >>> count);
+                if (position == buffer.length) {
+                    out.write(buffer, 0, position);
+                    position = 0;
+                }
+            }
+        }
+
+        // Дополнение последнего байта нулями и сброс буфера
+        void finish() throws IOException {
+            if (count > 0) {
+                write(0, 8 - count);
+            }
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+    }
+
+    private static final class BitInput {
+        private final InputStream in;
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+        private int position;
+        private int limit;
+        private long accumulator;
+        private int count;
+
+        BitInput(InputStream in) {
+            this.in = in;
+        }
+
+        long read(int n) throws IOException {
+            if (n > 32) {
+                long high = read(n - 32);
+                return (high << 32) | read(32);
+            }
+            while (count < n) {
+                accumulator = (accumulator << 8) | nextByte();
+                count += 8;
+            }
+            count -= n;
+            return (accumulator >>> count) & ((1L << n) - 1);
+        }
+
+        private int nextByte() throws IOException {
+            if (position == limit) {
+                limit = in.read(buffer, 0, buffer.length);
+                position = 0;
+                if (limit <= 0) {
+                    limit = 0;
+                    throw new EOFException("Неожиданный конец данных табулированной функции");
+                }
+            }
+            return buffer[position++] & 0xFF;
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package functions;
+
+import java.io.*;
+
+// Запись текста в Writer через собственный буфер char[] без промежуточных строк.
+// Числа из диапазона [1e-3, 1e7), который Double.toString выводит без порядка, выводятся
+// кратчайшей десятичной записью, которая читается обратно в то же значение: точное
+// произведение на степень 10 (double-double) дает 17-значное масштабированное значение
+// и интервал округления, из которого выбирается число с наибольшим количеством нулей
+// в конце. Остальные значения выводятся через Double.toString.
+final class DoubleFormatter {
+    private static final int BUFFER_SIZE = 1 << 16;
+    // Запас под одно число: знак, "0.", до 21 знака после точки
+    private static final int MAX_NUMBER_LENGTH = 32;
+    // Вне этого диапазона Double.toString переходит к записи с порядком, которая короче
+    private static final double MIN_FAST_VALUE = 1e-3;
+    private static final double MAX_FAST_VALUE = 1e7;
+    private static final double MAX_SCALED_VALUE = 1e17;
+    private static final int SIGNIFICANT_DIGITS = 17;
+    private static final double LOG10_2 = 0.30102999566398120;
+    // Запас при сравнении с границами интервала округления: граничные значения не выбираются
+    private static final double BOUNDARY_MARGIN = 1e-9;
+    private static final long[] LONG_POWERS_OF_TEN = new long[SIGNIFICANT_DIGITS + 1];
+
+    private static final char[] DIGIT_TENS = new char[100];
+    private static final char[] DIGIT_ONES = new char[100];
+
+    static {
+        for (int i = 0; i < 100; i++) {
+            DIGIT_TENS[i] = (char) ('0' + i / 10);
+            DIGIT_ONES[i] = (char) ('0' + i % 10);
+        }
+        LONG_POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < LONG_POWERS_OF_TEN.length; i++) {
+            LONG_POWERS_OF_TEN[i] = LONG_POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private final Writer out;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position;
+
+    DoubleFormatter(Writer out) {
+        this.out = out;
+    }
+
+    DoubleFormatter append(char c) throws IOException {
+        ensureCapacity(1);
+        buffer[position++] = c;
+        return this;
+    }
+
+    DoubleFormatter append(long value) throws IOException {
+        ensureCapacity(MAX_NUMBER_LENGTH);
+        if (value < 0) {
+            buffer[position++] = '-';
+            value = -value;
+        }
+        appendDigits(value, 0);
+        return this;
+    }
+
+    DoubleFormatter append(double value) throws IOException {
+        ensureCapacity(MAX_NUMBER_LENGTH);
+        if (value == 0) {
+            appendAscii(1 / value < 0 ? "-0.0" : "0.0");
+            return this;
+        }
+        double abs = Math.abs(value);
+        if (abs >= MIN_FAST_VALUE && abs < MAX_FAST_VALUE) {
+            int start = position;
+            if (value < 0) {
+                buffer[position++] = '-';
+            }
+            if (appendShortest(abs)) {
+                return this;
+            }
+            position = start;
+        }
+        appendAscii(Double.toString(value));
+        return this;
+    }
+
+    void flush() throws IOException {
+        out.write(buffer, 0, position);
+        position = 0;
+        out.flush();
+    }
+
+    private boolean appendShortest(double value) {
+        // Показатель q такой, что value * 10^-q лежит в [10^16, 10^17); log10(2) оценивает его с недостатком не более 1
+        int binaryExponent = Math.getExponent(value);
+        int q = (int) Math.floor(binaryExponent * LOG10_2) - (SIGNIFICANT_DIGITS - 1);
+        double power = DoubleScanner.POWERS_OF_TEN[-q];
+        double high = value * power;
+        if (high >= MAX_SCALED_VALUE) {
+            q++;
+            power = DoubleScanner.POWERS_OF_TEN[-q];
+            high = value * power;
+        }
+        // Точное значение value * 10^-q равно base + low
+        long base = (long) high;
+        double low = (high - base) + DoubleScanner.productError(value, power, high);
+
+        // Половины расстояний до соседних double в тех же единицах; у степени двойки нижний сосед ближе
+        double halfUp = Double.longBitsToDouble((long) (binaryExponent - 53 + Double.MAX_EXPONENT) << 52) * power;
+        double halfDown = Double.doubleToRawLongBits(value) << 12 == 0 && value > Double.MIN_NORMAL
+            ? halfUp / 2 : halfUp;
+        long lowest = base + (long) Math.floor(low - halfDown + BOUNDARY_MARGIN) + 1;
+        long highest = base + (long) Math.ceil(low + halfUp - BOUNDARY_MARGIN) - 1;
+        if (lowest > highest) {
+            return false;
+        }
+
+        // Наибольшее t, при котором в интервале есть число, кратное 10^t
+        int t = 0;
+        while (t < SIGNIFICANT_DIGITS && (lowest + 9) / 10 <= highest / 10) {
+            lowest = (lowest + 9) / 10;
+            highest /= 10;
+            t++;
+        }
+        // Из подходящих выбирается ближайшее к точному значению
+        long nearest = base + Math.round(low);
+        long mantissa = t == 0 ? nearest : (nearest + LONG_POWERS_OF_TEN[t] / 2) / LONG_POWERS_OF_TEN[t];
+        mantissa = Math.max(lowest, Math.min(highest, mantissa));
+
+        int exponent = q + t;
+        if (exponent >= 0) {
+            appendDigits(mantissa * LONG_POWERS_OF_TEN[exponent], 0);
+            buffer[position++] = '.';
+            buffer[position++] = '0';
+        } else {
+            appendDigits(mantissa, -exponent);
+        }
+        return true;
+    }
+
+    // Цифры mantissa с десятичной точкой перед последними fractionDigits цифрами;
+    // цифры пишутся парами с конца, затем дробная часть сдвигается для вставки точки
+    private void appendDigits(long mantissa, int fractionDigits) {
+        int length = 1;
+        while (length < LONG_POWERS_OF_TEN.length && mantissa >= LONG_POWERS_OF_TEN[length]) {
+            length++;
+        }
+        int digits = Math.max(length, fractionDigits + 1);
+        int end = position + digits;
+        int i = end;
+        while (mantissa >= Integer.MAX_VALUE) {
+            long quotient = mantissa / 100;
+            int pair = (int) (mantissa - quotient * 100);
+            mantissa = quotient;
+            buffer[--i] = DIGIT_ONES[pair];
+            buffer[--i] = DIGIT_TENS[pair];
+        }
+        int rest = (int) mantissa;
+        while (rest >= 100) {
+            int quotient = rest / 100;
+            int pair = rest - quotient * 100;
+            rest = quotient;
+            buffer[--i] = DIGIT_ONES[pair];
+            buffer[--i] = DIGIT_TENS[pair];
+        }
+        buffer[--i] = DIGIT_ONES[rest];
+        if (rest >= 10) {
+            buffer[--i] = DIGIT_TENS[rest];
+        }
+        while (i > position) {
+            buffer[--i] = '0';
+        }
+        if (fractionDigits > 0) {
+            int point = end - fractionDigits;
+            System.arraycopy(buffer, point, buffer, point + 1, fractionDigits);
+            buffer[point] = '.';
+            end++;
+        }
+        position = end;
+    }
+
+    private void appendAscii(String text) {
+        text.getChars(0, text.length(), buffer, position);
+        position += text.length();
+    }
+
+    private void ensureCapacity(int length) throws IOException {
+        if (position + length > buffer.length) {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package functions;
+
+import java.io.*;
+
+// Буферизованный разбор чисел из текстового потока вместо StreamTokenizer.
+// Лексемы разделяются пробельными символами. Числа, у которых не более 18 значащих
+// цифр и показатель степени по модулю не более 22, вычисляются без создания строк:
+// при мантиссе меньше 2^53 точно (алгоритм Клингера), иначе в арифметике double-double
+// с проверкой однозначности округления. Остальные (включая NaN и Infinity), а также
+// неоднозначные случаи передаются в Double.parseDouble.
+final class DoubleScanner {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int MAX_FAST_DIGITS = 18;
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+    // 2^27 + 1, делитель double на две половины по 26 бит
+    private static final double SPLITTER = 134217729.0;
+    // Оценка сверху погрешности double-double относительно ulp старшей части
+    private static final double ERROR_BOUND = 0x1p-40;
+    private static final int MAX_FAST_EXPONENT = 22;
+    // Степени 10 до 10^22 представимы в double точно
+    static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+        1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final Reader in;
+    private final char[] buffer;
+    private int position;
+    private int limit;
+    private char[] token = new char[32];
+    private int tokenLength;
+
+    DoubleScanner(Reader in) {
+        this.in = in;
+        this.buffer = new char[BUFFER_SIZE];
+    }
+
+    // true, если в потоке осталась хотя бы одна лексема
+    boolean hasNext() throws IOException {
+        return skipWhitespace();
+    }
+
+    double nextDouble() throws IOException {
+        readToken();
+        return parseDouble(token, 0, tokenLength);
+    }
+
+    int nextInt() throws IOException {
+        return (int) nextDouble();
+    }
+
+    private boolean skipWhitespace() throws IOException {
+        while (true) {
+            if (position == limit && !fill()) {
+                return false;
+            }
+            if (buffer[position] > ' ') {
+                return true;
+            }
+            position++;
+        }
+    }
+
+    private void readToken() throws IOException {
+        if (!skipWhitespace()) {
+            throw new EOFException("Неожиданный конец данных табулированной функции");
+        }
+        tokenLength = 0;
+        while (position < limit || fill()) {
+            char c = buffer[position];
+            if (c <= ' ') {
+                break;
+            }
+            if (tokenLength == token.length) {
+                char[] grown = new char[token.length * 2];
+                System.arraycopy(token, 0, grown, 0, tokenLength);
+                token = grown;
+            }
+            token[tokenLength++] = c;
+            position++;
+        }
+    }
+
+    private boolean fill() throws IOException {
+        int read = in.read(buffer, 0, buffer.length);
+        position = 0;
+        limit = Math.max(read, 0);
+        return read > 0;
+    }
+
+    // Точная погрешность произведения a * b = product (алгоритм Деккера, без переполнения и потери значимости)
+    static double productError(double a, double b, double product) {
+        double aSplit = SPLITTER * a;
+        double aHigh = aSplit - (aSplit - a);
+        double aLow = a - aHigh;
+        double bSplit = SPLITTER * b;
+        double bHigh = bSplit - (bSplit - b);
+        double bLow = b - bHigh;
+        return ((aHigh * bHigh - product) + aHigh * bLow + aLow * bHigh) + aLow * bLow;
+    }
+
+    // mantissa * 10^exponent с корректным округлением либо NaN, если округление неоднозначно
+    private static double scale(long mantissa, int exponent) {
+        double power = POWERS_OF_TEN[Math.abs(exponent)];
+        if (mantissa < MAX_EXACT_MANTISSA) {
+            return exponent < 0 ? mantissa / power : mantissa * power;
+        }
+        double high = (double) mantissa;
+        double low = (double) (mantissa - (long) high);
+        double result;
+        double rest;
+        if (exponent >= 0) {
+            result = high * power;
+            rest = productError(high, power, result) + low * power;
+        } else {
+            result = high / power;
+            double product = result * power;
+            rest = ((high - product) - productError(result, power, product) + low) / power;
+        }
+        double error = Math.ulp(result) * ERROR_BOUND;
+        double lower = result + (rest - error);
+        double upper = result + (rest + error);
+        return lower == upper ? lower : Double.NaN;
+    }
+
+    static double parseDouble(char[] chars, int offset, int length) throws IOException {
+        int i = offset;
+        int end = offset + length;
+        boolean negative = false;
+        if (i < end && (chars[i] == '-' || chars[i] == '+')) {
+            negative = chars[i] == '-';
+            i++;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean anyDigits = false;
+        boolean exact = true;
+
+        while (i < end && chars[i] >= '0' && chars[i] <= '9') {
+            anyDigits = true;
+            int d = chars[i++] - '0';
+            if (digits < MAX_FAST_DIGITS) {
+                if (mantissa != 0 || d != 0) {
+                    mantissa = mantissa * 10 + d;
+                    digits++;
+                }
+            } else {
+                exact = false;
+            }
+        }
+        if (i < end && chars[i] == '.') {
+            i++;
+            while (i < end && chars[i] >= '0' && chars[i] <= '9') {
+                anyDigits = true;
+                int d = chars[i++] - '0';
+                if (digits < MAX_FAST_DIGITS) {
+                    if (mantissa != 0 || d != 0) {
+                        mantissa = mantissa * 10 + d;
+                        digits++;
+                    }
+                    exponent--;
+                } else if (d != 0) {
+                    exact = false;
+                }
+            }
+        }
+        if (anyDigits && i < end && (chars[i] == 'e' || chars[i] == 'E')) {
+            i++;
+            boolean negativeExponent = false;
+            if (i < end && (chars[i] == '-' || chars[i] == '+')) {
+                negativeExponent = chars[i] == '-';
+                i++;
+            }
+            int start = i;
+            int e = 0;
+            while (i < end && chars[i] >= '0' && chars[i] <= '9' && e < 100000) {
+                e = e * 10 + (chars[i++] - '0');
+            }
+            if (i == start) {
+                anyDigits = false;
+            }
+            exponent += negativeExponent ? -e : e;
+        }
+
+        if (anyDigits && i == end && exact) {
+            if (mantissa == 0) {
+                return negative ? -0.0 : 0.0;
+            }
+            if (exponent >= -MAX_FAST_EXPONENT && exponent <= MAX_FAST_EXPONENT) {
+                double value = scale(mantissa, exponent);
+                if (!Double.isNaN(value)) {
+                    return negative ? -value : value;
+                }
+            }
+        }
+
+        String text = new String(chars, offset, length);
+        try {
+            return Double.parseDouble(text);
+        } catch (NumberFormatException e) {
+            throw new IOException("Некорректное число в данных табулированной функции: " + text, e);
+        }
+    }
+}
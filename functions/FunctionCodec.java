@@ -0,0 +1,254 @@
+package functions;
+
+import functions.basic.*;
+import functions.meta.*;
+import java.io.*;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Компактное двоичное кодирование выражений из функций functions.basic, functions.meta
+// и табулированных функций для передачи между процессами.
+//
+// Поток начинается с MAGIC и VERSION, затем идут выражения. Узел записывается тегом,
+// затем дочерними узлами и параметрами. Каждому записанному узлу присваивается номер,
+// и повторная встреча того же или структурно равного узла (в том числе в следующих
+// выражениях потока) записывается ссылкой REFERENCE на этот номер.
+public final class FunctionCodec {
+    public static final int MAGIC = 0x46455850; // "FEXP"
+    public static final int VERSION = 1;
+
+    private static final int REFERENCE = 0;
+    private static final int EXP = 1;
+    private static final int SIN = 2;
+    private static final int COS = 3;
+    private static final int TAN = 4;
+    private static final int LOG = 5;
+    private static final int SUM = 10;
+    private static final int MULT = 11;
+    private static final int POWER = 12;
+    private static final int COMPOSITION = 13;
+    private static final int SCALE = 14;
+    private static final int SHIFT = 15;
+    private static final int ARRAY_TABULATED = 20;
+    private static final int LINKED_LIST_TABULATED = 21;
+    private static final int LAZY_TABULATED = 22;
+
+    private FunctionCodec() {
+    }
+
+    // Запись одного выражения как самостоятельного потока
+    public static void outputFunction(Function function, OutputStream out) throws IOException {
+        Encoder encoder = new Encoder(out);
+        encoder.write(function);
+        encoder.flush();
+    }
+
+    public static Function inputFunction(InputStream in) throws IOException {
+        return new Decoder(in).read();
+    }
+
+    public static final class Encoder {
+        private final DataOutputStream out;
+        private final Map<Function, Integer> ids = new IdentityHashMap<>();
+
+        public Encoder(OutputStream out) throws IOException {
+            this.out = new DataOutputStream(new BufferedOutputStream(out));
+            this.out.writeInt(MAGIC);
+            this.out.writeByte(VERSION);
+        }
+
+        public void write(Function function) throws IOException {
+            if (function == null) {
+                throw new IllegalArgumentException("Функция не может быть null");
+            }
+            // Структурно равные поддеревья сводятся к одному экземпляру, табулированные функции - по идентичности
+            function = InternedFunctions.intern(function);
+            Integer id = ids.get(function);
+            if (id != null) {
+                out.writeByte(REFERENCE);
+                writeVarInt(id);
+                return;
+            }
+            writeNode(function);
+            ids.put(function, ids.size());
+        }
+
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        private void writeNode(Function function) throws IOException {
+            Class<?> type = function.getClass();
+            if (type == Exp.class) {
+                out.writeByte(EXP);
+            } else if (type == Sin.class) {
+                out.writeByte(SIN);
+            } else if (type == Cos.class) {
+                out.writeByte(COS);
+            } else if (type == Tan.class) {
+                out.writeByte(TAN);
+            } else if (type == Log.class) {
+                out.writeByte(LOG);
+                out.writeDouble(((Log) function).getBase());
+            } else if (type == Sum.class) {
+                Sum sum = (Sum) function;
+                out.writeByte(SUM);
+                write(sum.getFunction1());
+                write(sum.getFunction2());
+            } else if (type == Mult.class) {
+                Mult mult = (Mult) function;
+                out.writeByte(MULT);
+                write(mult.getFunction1());
+                write(mult.getFunction2());
+            } else if (type == Power.class) {
+                Power power = (Power) function;
+                out.writeByte(POWER);
+                write(power.getFunction());
+                out.writeDouble(power.getPower());
+            } else if (type == Composition.class) {
+                Composition composition = (Composition) function;
+                out.writeByte(COMPOSITION);
+                write(composition.getInner());
+                write(composition.getOuter());
+            } else if (type == Scale.class) {
+                Scale scale = (Scale) function;
+                out.writeByte(SCALE);
+                write(scale.getFunction());
+                out.writeDouble(scale.getScaleX());
+                out.writeDouble(scale.getScaleY());
+            } else if (type == Shift.class) {
+                Shift shift = (Shift) function;
+                out.writeByte(SHIFT);
+                write(shift.getFunction());
+                out.writeDouble(shift.getShiftX());
+                out.writeDouble(shift.getShiftY());
+            } else if (type == LazyTabulatedFunction.class) {
+                LazyTabulatedFunction lazy = (LazyTabulatedFunction) function;
+                out.writeByte(LAZY_TABULATED);
+                write(lazy.getSource());
+                out.writeDouble(lazy.getLeftDomainBorder());
+                out.writeDouble(lazy.getRightDomainBorder());
+                writeVarInt(lazy.getPointsCount());
+            } else if (function instanceof TabulatedFunction) {
+                // Прочие реализации TabulatedFunction восстанавливаются как ArrayTabulatedFunction
+                TabulatedFunction tabulated = (TabulatedFunction) function;
+                out.writeByte(type == LinkedListTabulatedFunction.class ? LINKED_LIST_TABULATED : ARRAY_TABULATED);
+                int pointsCount = tabulated.getPointsCount();
+                writeVarInt(pointsCount);
+                for (int i = 0; i < pointsCount; i++) {
+                    FunctionPoint point = tabulated.getPoint(i);
+                    out.writeDouble(point.getX());
+                    out.writeDouble(point.getY());
+                }
+            } else {
+                throw new NotSerializableException(type.getName());
+            }
+        }
+
+        private void writeVarInt(int value) throws IOException {
+            while ((value & ~0x7F) != 0) {
+                out.writeByte((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            out.writeByte(value);
+        }
+    }
+
+    public static final class Decoder {
+        private final DataInputStream in;
+        private final List<Function> nodes = new ArrayList<>();
+
+        public Decoder(InputStream in) throws IOException {
+            this.in = new DataInputStream(new BufferedInputStream(in));
+            if (this.in.readInt() != MAGIC) {
+                throw new StreamCorruptedException("Поток не содержит закодированных функций");
+            }
+            int version = this.in.readUnsignedByte();
+            if (version > VERSION) {
+                throw new StreamCorruptedException("Неподдерживаемая версия формата: " + version);
+            }
+        }
+
+        public Function read() throws IOException {
+            int tag = in.readUnsignedByte();
+            if (tag == REFERENCE) {
+                int id = readVarInt();
+                if (id >= nodes.size()) {
+                    throw new StreamCorruptedException("Ссылка на неизвестный узел: " + id);
+                }
+                return nodes.get(id);
+            }
+            Function function;
+            try {
+                function = readNode(tag);
+            } catch (IllegalArgumentException e) {
+                throw new InvalidObjectException(e.getMessage());
+            }
+            nodes.add(function);
+            return function;
+        }
+
+        private Function readNode(int tag) throws IOException {
+            switch (tag) {
+                case EXP:
+                    return new Exp();
+                case SIN:
+                    return new Sin();
+                case COS:
+                    return new Cos();
+                case TAN:
+                    return new Tan();
+                case LOG:
+                    return new Log(in.readDouble());
+                case SUM:
+                    return new Sum(read(), read());
+                case MULT:
+                    return new Mult(read(), read());
+                case POWER:
+                    return new Power(read(), in.readDouble());
+                case COMPOSITION:
+                    return new Composition(read(), read());
+                case SCALE:
+                    return new Scale(read(), in.readDouble(), in.readDouble());
+                case SHIFT:
+                    return new Shift(read(), in.readDouble(), in.readDouble());
+                case LAZY_TABULATED:
+                    return new LazyTabulatedFunction(read(), in.readDouble(), in.readDouble(), readVarInt());
+                case ARRAY_TABULATED:
+                case LINKED_LIST_TABULATED: {
+                    int pointsCount = readVarInt();
+                    double[] xValues = new double[pointsCount];
+                    double[] yValues = new double[pointsCount];
+                    for (int i = 0; i < pointsCount; i++) {
+                        xValues[i] = in.readDouble();
+                        yValues[i] = in.readDouble();
+                    }
+                    if (tag == ARRAY_TABULATED) {
+                        return new ArrayTabulatedFunction(xValues, yValues, pointsCount);
+                    }
+                    FunctionPoint[] points = new FunctionPoint[pointsCount];
+                    for (int i = 0; i < pointsCount; i++) {
+                        points[i] = new FunctionPoint(xValues[i], yValues[i]);
+                    }
+                    return new LinkedListTabulatedFunction(points);
+                }
+                default:
+                    throw new StreamCorruptedException("Неизвестный тег узла: " + tag);
+            }
+        }
+
+        private int readVarInt() throws IOException {
+            int value = 0;
+            for (int shift = 0; shift < 35; shift += 7) {
+                int b = in.readUnsignedByte();
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new StreamCorruptedException("Некорректное число переменной длины");
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package functions;
+
+import java.time.Duration;
+import jdk.jfr.Recording;
+
+// Имена событий JDK Flight Recorder, которые пишут functions и threads. Пороги по умолчанию
+// заданы аннотациями событий; для записи с другим порогом используется enable либо файл
+// настроек .jfc с теми же именами, например functions.Integration#threshold=10 ms
+public final class FunctionEvents {
+    public static final String INTEGRATION = "functions.Integration";
+    public static final String TABULATION = "functions.Tabulation";
+    public static final String TASK_HANDOFF = "threads.TaskHandoff";
+
+    private FunctionEvents() {
+    }
+
+    // Включает все события в записи с общим порогом длительности
+    public static void enable(Recording recording, Duration threshold) {
+        recording.enable(INTEGRATION).withThreshold(threshold).withStackTrace();
+        recording.enable(TABULATION).withThreshold(threshold).withStackTrace();
+        recording.enable(TASK_HANDOFF).withThreshold(threshold);
+    }
+}
@@ -6,8 +6,16 @@ import functions.meta.Power;
 import functions.meta.Scale;
 import functions.meta.Shift;
 import functions.meta.Sum;
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
 
 public final class Functions {
+    // Как часто (в шагах) прерываемое интегрирование проверяет признак отмены; степень двойки
+    private static final int CANCEL_CHECK_STEPS = 1024;
+    // Относительная точность совмещения границы интервала с узлом сетки (в долях шага)
+    private static final double GRID_TOLERANCE = 1e-9;
+
     public static Function shift(Function f, double shiftX, double shiftY) {
         return new Shift(f, shiftX, shiftY);
     }
@@ -32,29 +40,37 @@ public final class Functions {
         return new Composition(f1, f2);
     }
 
+    // Инструментированная копия дерева выражения: вычисляет те же значения и собирает
+    // по каждому узлу количество вызовов и выборочное время (отчет - report())
+    public static ProfiledFunction profile(Function function) {
+        return ProfiledFunction.of(function);
+    }
+
     public static double integrate(Function function, double leftX, double rightX, double step) {
+        return integrate(function, leftX, rightX, step, null);
+    }
+
+    // Интегрирование с проверкой признака отмены каждые CANCEL_CHECK_STEPS шагов;
+    // после отмены выбрасывается CancellationException. cancelled == null - без проверки
+    public static double integrate(Function function, double leftX, double rightX, double step,
+                                   BooleanSupplier cancelled) {
         if (step <= 0) {
             throw new IllegalArgumentException("Шаг дискретизации должен быть положительным: " + step);
         }
 
-        if (leftX >= rightX) {
-            throw new IllegalArgumentException(
-                String.format("Левая граница (%.6f) должна быть меньше правой (%.6f)", leftX, rightX));
-        }
-
-        double funcLeftBorder = function.getLeftDomainBorder();
-        double funcRightBorder = function.getRightDomainBorder();
-        
-        if (leftX < funcLeftBorder || rightX > funcRightBorder) {
-            throw new IllegalArgumentException(
-                String.format("Интервал [%.6f, %.6f] выходит за границы области определения [%.6f, %.6f]",
-                    leftX, rightX, funcLeftBorder, funcRightBorder));
-        }
+        checkInterval(function, leftX, rightX);
 
+        IntegrationEvent event = new IntegrationEvent();
+        event.begin();
         double integralSum = 0.0;
         double currentX = leftX;
+        long steps = 0;
 
         while (currentX < rightX) {
+            if ((++steps & (CANCEL_CHECK_STEPS - 1)) == 0 && cancelled != null && cancelled.getAsBoolean()) {
+                throw new CancellationException(
+                    String.format("Интегрирование прервано в точке x=%.6f", currentX));
+            }
             double currentStep = Math.min(step, rightX - currentX);
             double nextX = currentX + currentStep;
             
@@ -69,7 +85,188 @@ public final class Functions {
             integralSum += (y1 + y2) * currentStep / 2.0;
             currentX = nextX;
         }
-        
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.functionClass = function.getClass();
+            event.leftX = leftX;
+            event.rightX = rightX;
+            event.step = step;
+            event.intervals = 1;
+            event.evaluations = 2 * steps;
+            event.commit();
+        }
         return integralSum;
     }
-}
\ No newline at end of file
+
+    // Интегралы одной функции по нескольким интервалам с общим шагом. Левые границы должны лежать
+    // на общей сетке x_k = min(leftX) + k * step (см. isOnGrid), иначе выбрасывается IllegalArgumentException:
+    // тогда узлы каждого интервала те же, что у integrate, и результат совпадает с ним с точностью
+    // до округления. Значения функции в каждом узле объединения интервалов вычисляются один раз,
+    // по ним накапливаются суммы трапеций, и интеграл по интервалу - разность сумм на его концах.
+    // Правая граница вне узла сетки добавляет неполную трапецию, как последний шаг в integrate.
+    // Стоимость - размер объединения интервалов, а не сумма их длин
+    public static double[] integrate(Function function, double[] leftX, double[] rightX, double step) {
+        if (leftX.length != rightX.length) {
+            throw new IllegalArgumentException(
+                "Количество левых (" + leftX.length + ") и правых (" + rightX.length + ") границ не совпадает");
+        }
+        if (step <= 0) {
+            throw new IllegalArgumentException("Шаг дискретизации должен быть положительным: " + step);
+        }
+        int count = leftX.length;
+        double[] results = new double[count];
+        if (count == 0) {
+            return results;
+        }
+        double origin = leftX[0];
+        double end = rightX[0];
+        for (int i = 0; i < count; i++) {
+            checkInterval(function, leftX[i], rightX[i]);
+            origin = Math.min(origin, leftX[i]);
+            end = Math.max(end, rightX[i]);
+        }
+        for (int i = 0; i < count; i++) {
+            if (!isOnGrid(origin, step, leftX[i])) {
+                throw new IllegalArgumentException(String.format(
+                    "Левая граница %.6f не лежит на сетке с шагом %.6f от %.6f", leftX[i], step, origin));
+            }
+        }
+        IntegrationEvent event = new IntegrationEvent();
+        event.begin();
+        long evaluations = 0;
+
+        // Первый и последний узлы сетки внутри каждого интервала; интервалы без узлов
+        // вычисляются одной трапецией и в проход по сетке не попадают
+        long[] first = new long[count];
+        long[] last = new long[count];
+        int withNodes = 0;
+        Integer[] byFirst = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            first[i] = gridIndex(origin, step, leftX[i], true);
+            last[i] = gridIndex(origin, step, rightX[i], false);
+            if (first[i] > last[i]) {
+                results[i] = trapezoid(leftX[i], valueAt(function, leftX[i]), rightX[i], valueAt(function, rightX[i]));
+                evaluations += 2;
+            } else {
+                byFirst[withNodes++] = i;
+            }
+        }
+        byFirst = Arrays.copyOf(byFirst, withNodes);
+        Integer[] byLast = byFirst.clone();
+        Arrays.sort(byFirst, (a, b) -> Long.compare(first[a], first[b]));
+        Arrays.sort(byLast, (a, b) -> Long.compare(last[a], last[b]));
+
+        // Один проход по узлам объединения: сумма трапеций непрерывна внутри связного участка,
+        // промежутки между участками пропускаются
+        double[] firstSum = new double[count];
+        double[] firstX = new double[count];
+        double[] firstY = new double[count];
+        int nextStart = 0;
+        int nextEnd = 0;
+        int active = 0;
+        double sum = 0;
+        double previousY = 0;
+        long k = 0;
+        while (nextEnd < withNodes) {
+            k = active > 0 ? k + 1 : first[byFirst[nextStart]];
+            // Узел, совпадающий с концом интервала лишь с точностью до округления, сдвигается
+            // внутрь интервала: функция не вычисляется за его границами
+            double x = origin + k * step;
+            for (int j = nextStart; j < withNodes && first[byFirst[j]] == k; j++) {
+                x = Math.max(x, leftX[byFirst[j]]);
+            }
+            for (int j = nextEnd; j < withNodes && last[byLast[j]] == k; j++) {
+                x = Math.min(x, rightX[byLast[j]]);
+            }
+            double y = valueAt(function, x);
+            evaluations++;
+            if (active > 0) {
+                sum += (previousY + y) * step / 2.0;
+            }
+            previousY = y;
+            while (nextStart < withNodes && first[byFirst[nextStart]] == k) {
+                int i = byFirst[nextStart++];
+                firstSum[i] = sum;
+                firstX[i] = x;
+                firstY[i] = y;
+                active++;
+            }
+            while (nextEnd < withNodes && last[byLast[nextEnd]] == k) {
+                int i = byLast[nextEnd++];
+                double result = sum - firstSum[i];
+                if (firstX[i] > leftX[i]) {
+                    result += trapezoid(leftX[i], valueAt(function, leftX[i]), firstX[i], firstY[i]);
+                    evaluations++;
+                }
+                if (x < rightX[i]) {
+                    result += trapezoid(x, y, rightX[i], valueAt(function, rightX[i]));
+                    evaluations++;
+                }
+                results[i] = result;
+                active--;
+            }
+        }
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.functionClass = function.getClass();
+            event.leftX = origin;
+            event.rightX = end;
+            event.step = step;
+            event.intervals = count;
+            event.evaluations = evaluations;
+            event.commit();
+        }
+        return results;
+    }
+
+    private static void checkInterval(Function function, double leftX, double rightX) {
+        if (leftX >= rightX) {
+            throw new IllegalArgumentException(
+                String.format("Левая граница (%.6f) должна быть меньше правой (%.6f)", leftX, rightX));
+        }
+
+        double funcLeftBorder = function.getLeftDomainBorder();
+        double funcRightBorder = function.getRightDomainBorder();
+        
+        if (leftX < funcLeftBorder || rightX > funcRightBorder) {
+            throw new IllegalArgumentException(
+                String.format("Интервал [%.6f, %.6f] выходит за границы области определения [%.6f, %.6f]",
+                    leftX, rightX, funcLeftBorder, funcRightBorder));
+        }
+    }
+
+    // Лежит ли x на сетке origin + k * step, k >= 0, с той же точностью, с какой многоинтервальное
+    // integrate совмещает границы с узлами
+    public static boolean isOnGrid(double origin, double step, double x) {
+        if (!(step > 0) || x < origin) {
+            return false;
+        }
+        double position = (x - origin) / step;
+        return Math.abs(position - Math.rint(position)) <= GRID_TOLERANCE * Math.max(1, position);
+    }
+
+    // Номер узла сетки: для левой границы - первый узел не левее x, для правой - последний не правее x.
+    // Узел, отличающийся от x на доли ulp шага из-за округления, считается совпадающим с x
+    private static long gridIndex(double origin, double step, double x, boolean left) {
+        double position = (x - origin) / step;
+        long nearest = Math.round(position);
+        if (Math.abs(position - nearest) <= GRID_TOLERANCE * Math.max(1, Math.abs(position))) {
+            return nearest;
+        }
+        return left ? (long) Math.ceil(position) : (long) Math.floor(position);
+    }
+
+    private static double valueAt(Function function, double x) {
+        double y = function.getFunctionValue(x);
+        if (Double.isNaN(y)) {
+            throw new IllegalArgumentException(String.format("Функция возвращает NaN в точке x=%.6f", x));
+        }
+        return y;
+    }
+
+    private static double trapezoid(double x1, double y1, double x2, double y2) {
+        return (y1 + y2) * (x2 - x1) / 2.0;
+    }
+}
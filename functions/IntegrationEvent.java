@@ -0,0 +1,29 @@
+package functions;
+
+import jdk.jfr.*;
+
+// Событие JFR для Functions.integrate: записывается, если вычисление длилось не меньше порога
+@Name(FunctionEvents.INTEGRATION)
+@Label("Integration")
+@Category({"Functions"})
+@Description("Вычисление интеграла методом трапеций")
+@Threshold("1 ms")
+final class IntegrationEvent extends Event {
+    @Label("Function Class")
+    Class<?> functionClass;
+
+    @Label("Left X")
+    double leftX;
+
+    @Label("Right X")
+    double rightX;
+
+    @Label("Step")
+    double step;
+
+    @Label("Intervals")
+    int intervals;
+
+    @Label("Evaluations")
+    long evaluations;
+}
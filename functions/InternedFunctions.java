@@ -0,0 +1,189 @@
+package functions;
+
+import functions.basic.*;
+import functions.meta.*;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Интернирование функций: структурно равные выражения из functions.basic и functions.meta
+// сводятся к одному каноническому экземпляру, так что кэши по идентичности функции
+// начинают срабатывать. Таблица хранит экземпляры по слабым ссылкам и безопасна
+// для нескольких потоков. Табулированные функции изменяемы, поэтому они и содержащие
+// их выражения не интернируются и возвращаются без изменений.
+public final class InternedFunctions {
+    private static final ConcurrentHashMap<WeakKey, WeakKey> TABLE = new ConcurrentHashMap<>();
+    private static final ReferenceQueue<Function> QUEUE = new ReferenceQueue<>();
+
+    private InternedFunctions() {
+    }
+
+    public static Function exp() {
+        return lookup(new Exp());
+    }
+
+    public static Function sin() {
+        return lookup(new Sin());
+    }
+
+    public static Function cos() {
+        return lookup(new Cos());
+    }
+
+    public static Function tan() {
+        return lookup(new Tan());
+    }
+
+    public static Function log(double base) {
+        return lookup(new Log(base));
+    }
+
+    public static Function shift(Function f, double shiftX, double shiftY) {
+        return intern(new Shift(f, shiftX, shiftY));
+    }
+
+    public static Function scale(Function f, double scaleX, double scaleY) {
+        return intern(new Scale(f, scaleX, scaleY));
+    }
+
+    public static Function power(Function f, double power) {
+        return intern(new Power(f, power));
+    }
+
+    public static Function sum(Function f1, Function f2) {
+        return intern(new Sum(f1, f2));
+    }
+
+    public static Function mult(Function f1, Function f2) {
+        return intern(new Mult(f1, f2));
+    }
+
+    public static Function composition(Function f1, Function f2) {
+        return intern(new Composition(f1, f2));
+    }
+
+    // Канонический экземпляр выражения; поддеревья интернируются снизу вверх
+    public static Function intern(Function function) {
+        Function canonical = canonical(function);
+        return canonical != null ? canonical : function;
+    }
+
+    // Количество живых канонических экземпляров в таблице
+    public static int size() {
+        expungeStaleEntries();
+        return TABLE.size();
+    }
+
+    // null, если выражение не может быть интернировано
+    private static Function canonical(Function function) {
+        Class<?> type = function.getClass();
+        if (type == Exp.class || type == Sin.class || type == Cos.class || type == Tan.class || type == Log.class) {
+            return lookup(function);
+        }
+        if (type == Sum.class) {
+            Sum sum = (Sum) function;
+            Function f1 = canonical(sum.getFunction1());
+            Function f2 = canonical(sum.getFunction2());
+            if (f1 == null || f2 == null) {
+                return null;
+            }
+            return lookup(f1 == sum.getFunction1() && f2 == sum.getFunction2() ? sum : new Sum(f1, f2));
+        }
+        if (type == Mult.class) {
+            Mult mult = (Mult) function;
+            Function f1 = canonical(mult.getFunction1());
+            Function f2 = canonical(mult.getFunction2());
+            if (f1 == null || f2 == null) {
+                return null;
+            }
+            return lookup(f1 == mult.getFunction1() && f2 == mult.getFunction2() ? mult : new Mult(f1, f2));
+        }
+        if (type == Composition.class) {
+            Composition composition = (Composition) function;
+            Function inner = canonical(composition.getInner());
+            Function outer = canonical(composition.getOuter());
+            if (inner == null || outer == null) {
+                return null;
+            }
+            return lookup(inner == composition.getInner() && outer == composition.getOuter()
+                ? composition : new Composition(inner, outer));
+        }
+        if (type == Power.class) {
+            Power power = (Power) function;
+            Function f = canonical(power.getFunction());
+            if (f == null) {
+                return null;
+            }
+            return lookup(f == power.getFunction() ? power : new Power(f, power.getPower()));
+        }
+        if (type == Scale.class) {
+            Scale scale = (Scale) function;
+            Function f = canonical(scale.getFunction());
+            if (f == null) {
+                return null;
+            }
+            return lookup(f == scale.getFunction() ? scale : new Scale(f, scale.getScaleX(), scale.getScaleY()));
+        }
+        if (type == Shift.class) {
+            Shift shift = (Shift) function;
+            Function f = canonical(shift.getFunction());
+            if (f == null) {
+                return null;
+            }
+            return lookup(f == shift.getFunction() ? shift : new Shift(f, shift.getShiftX(), shift.getShiftY()));
+        }
+        return null;
+    }
+
+    // Узел, все потомки которого уже канонические
+    private static Function lookup(Function function) {
+        expungeStaleEntries();
+        WeakKey key = new WeakKey(function, QUEUE);
+        while (true) {
+            WeakKey existing = TABLE.putIfAbsent(key, key);
+            if (existing == null) {
+                return function;
+            }
+            Function canonical = existing.get();
+            if (canonical != null) {
+                return canonical;
+            }
+            // Экземпляр уже собран сборщиком мусора, но запись еще не удалена
+            TABLE.remove(existing, existing);
+        }
+    }
+
+    private static void expungeStaleEntries() {
+        Object stale;
+        while ((stale = QUEUE.poll()) != null) {
+            TABLE.remove(stale, stale);
+        }
+    }
+
+    // Ключ таблицы: слабая ссылка с запомненным хэш-кодом и структурным сравнением
+    private static final class WeakKey extends WeakReference<Function> {
+        private final int hash;
+
+        WeakKey(Function function, ReferenceQueue<Function> queue) {
+            super(function, queue);
+            this.hash = function.hashCode();
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof WeakKey) || hash != ((WeakKey) o).hash) {
+                return false;
+            }
+            Function function = get();
+            return function != null && function.equals(((WeakKey) o).get());
+        }
+    }
+}
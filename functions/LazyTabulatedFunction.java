@@ -0,0 +1,266 @@
+package functions;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Табулированная функция на равномерной сетке, значения в узлах которой
+// вычисляются исходной функцией только при первом обращении к узлу.
+// Вычисленные значения кэшируются в массиве double, признак наличия
+// значения хранится в битовой маске. Чтение безопасно из нескольких потоков.
+public class LazyTabulatedFunction implements TabulatedFunction {
+    private static final double EPSILON = 1e-10;
+
+    private final Function source;
+    private final double leftX;
+    private final int pointsCount;
+    private final double step;
+    private final double[] values;
+    // Бит i установлен, если values[i] уже вычислено (или задано явно)
+    private final AtomicLongArray present;
+
+    public LazyTabulatedFunction(Function source, double leftX, double rightX, int pointsCount)
+            throws IllegalArgumentException {
+        if (source == null) {
+            throw new IllegalArgumentException("Функция не может быть null");
+        }
+        if (leftX >= rightX) {
+            throw new IllegalArgumentException("Левая граница (" + leftX +
+                    ") должна быть меньше правой (" + rightX + ")");
+        }
+        if (pointsCount < 2) {
+            throw new IllegalArgumentException("Количество точек должно быть не менее 2, получено: " + pointsCount);
+        }
+        this.source = source;
+        this.leftX = leftX;
+        this.pointsCount = pointsCount;
+        this.step = (rightX - leftX) / (pointsCount - 1);
+        this.values = new double[pointsCount];
+        this.present = new AtomicLongArray((pointsCount + 63) >>> 6);
+    }
+
+    // Конструктор копирования: переносит уже вычисленные узлы
+    private LazyTabulatedFunction(LazyTabulatedFunction other) {
+        this.source = other.source;
+        this.leftX = other.leftX;
+        this.pointsCount = other.pointsCount;
+        this.step = other.step;
+        this.values = new double[pointsCount];
+        this.present = new AtomicLongArray(other.present.length());
+        for (int w = 0; w < present.length(); w++) {
+            long bits = other.present.get(w);
+            present.set(w, bits);
+            while (bits != 0) {
+                int i = (w << 6) + Long.numberOfTrailingZeros(bits);
+                values[i] = other.values[i];
+                bits &= bits - 1;
+            }
+        }
+    }
+
+    // Значение в узле: при первом обращении вычисляется и публикуется через маску.
+    // Гонка двух читателей безопасна: оба запишут одно и то же значение.
+    private double nodeValue(int index) {
+        int word = index >>> 6;
+        long bit = 1L << index;
+        if ((present.get(word) & bit) != 0) {
+            return values[index];
+        }
+        double y = source.getFunctionValue(nodeX(index));
+        values[index] = y;
+        setPresent(word, bit);
+        return y;
+    }
+
+    private void setPresent(int word, long bit) {
+        long bits;
+        do {
+            bits = present.get(word);
+            if ((bits & bit) != 0) {
+                return;
+            }
+        } while (!present.compareAndSet(word, bits, bits | bit));
+    }
+
+    private double nodeX(int index) {
+        return leftX + index * step;
+    }
+
+    private void checkIndex(int index) throws FunctionPointIndexOutOfBoundsException {
+        if (index < 0 || index >= pointsCount) {
+            throw new FunctionPointIndexOutOfBoundsException(index, 0, pointsCount - 1);
+        }
+    }
+
+    // Количество узлов, значения которых уже вычислены
+    public int getEvaluatedCount() {
+        int count = 0;
+        for (int w = 0; w < present.length(); w++) {
+            count += Long.bitCount(present.get(w));
+        }
+        return count;
+    }
+
+    public Function getSource() {
+        return source;
+    }
+
+    // ==================== Реализация методов интерфейса TabulatedFunction ====================
+
+    @Override
+    public double getLeftDomainBorder() {
+        return leftX;
+    }
+
+    @Override
+    public double getRightDomainBorder() {
+        return nodeX(pointsCount - 1);
+    }
+
+    @Override
+    public double getFunctionValue(double x) {
+        double rightBorder = getRightDomainBorder();
+        if (x < leftX - EPSILON || x > rightBorder + EPSILON) {
+            return Double.NaN;
+        }
+        if (Math.abs(x - leftX) < EPSILON) {
+            return nodeValue(0);
+        }
+        if (Math.abs(x - rightBorder) < EPSILON) {
+            return nodeValue(pointsCount - 1);
+        }
+
+        // Интервал находится за O(1) благодаря равномерной сетке
+        int i = (int) ((x - leftX) / step);
+        if (i >= pointsCount - 1) {
+            i = pointsCount - 2;
+        } else if (i < 0) {
+            i = 0;
+        }
+        double x1 = nodeX(i);
+        double x2 = nodeX(i + 1);
+        if (Math.abs(x - x1) < EPSILON) {
+            return nodeValue(i);
+        }
+        if (Math.abs(x - x2) < EPSILON) {
+            return nodeValue(i + 1);
+        }
+
+        double y1 = nodeValue(i);
+        double y2 = nodeValue(i + 1);
+        return y1 + (y2 - y1) * (x - x1) / (x2 - x1);
+    }
+
+    @Override
+    public int getPointsCount() {
+        return pointsCount;
+    }
+
+    @Override
+    public FunctionPoint getPoint(int index) throws FunctionPointIndexOutOfBoundsException {
+        checkIndex(index);
+        return new FunctionPoint(nodeX(index), nodeValue(index));
+    }
+
+    // Узлы сетки фиксированы, поэтому допускается только изменение Y
+    @Override
+    public void setPoint(int index, FunctionPoint point)
+            throws FunctionPointIndexOutOfBoundsException, InappropriateFunctionPointException {
+        checkIndex(index);
+        if (Math.abs(point.getX() - nodeX(index)) >= EPSILON) {
+            throw new InappropriateFunctionPointException(
+                "Координата X узла ленивой табулированной функции не может быть изменена");
+        }
+        setPointY(index, point.getY());
+    }
+
+    @Override
+    public double getPointX(int index) throws FunctionPointIndexOutOfBoundsException {
+        checkIndex(index);
+        return nodeX(index);
+    }
+
+    @Override
+    public void setPointX(int index, double x)
+            throws FunctionPointIndexOutOfBoundsException, InappropriateFunctionPointException {
+        checkIndex(index);
+        if (Math.abs(x - nodeX(index)) >= EPSILON) {
+            throw new InappropriateFunctionPointException(
+                "Координата X узла ленивой табулированной функции не может быть изменена");
+        }
+    }
+
+    @Override
+    public double getPointY(int index) throws FunctionPointIndexOutOfBoundsException {
+        checkIndex(index);
+        return nodeValue(index);
+    }
+
+    // Как и у остальных реализаций, изменение не синхронизировано с параллельным чтением
+    @Override
+    public void setPointY(int index, double y) throws FunctionPointIndexOutOfBoundsException {
+        checkIndex(index);
+        values[index] = y;
+        setPresent(index >>> 6, 1L << index);
+    }
+
+    @Override
+    public void deletePoint(int index) throws InappropriateFunctionPointException {
+        checkIndex(index);
+        throw new InappropriateFunctionPointException(
+            "Удаление точек из ленивой табулированной функции не поддерживается");
+    }
+
+    @Override
+    public void addPoint(FunctionPoint point) throws InappropriateFunctionPointException {
+        throw new InappropriateFunctionPointException(
+            "Добавление точек в ленивую табулированную функцию не поддерживается");
+    }
+
+    // ==================== Переопределенные методы Object ====================
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{");
+        for (int i = 0; i < pointsCount; i++) {
+            sb.append(String.format("(%.3f; %.3f)", nodeX(i), nodeValue(i)));
+            if (i < pointsCount - 1) {
+                sb.append(", ");
+            }
+        }
+        sb.append("}");
+        return sb.toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof TabulatedFunction)) return false;
+
+        TabulatedFunction other = (TabulatedFunction) o;
+        if (this.pointsCount != other.getPointsCount()) return false;
+
+        for (int i = 0; i < pointsCount; i++) {
+            if (Math.abs(nodeX(i) - other.getPointX(i)) > EPSILON ||
+                Math.abs(nodeValue(i) - other.getPointY(i)) > EPSILON) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = pointsCount;
+        for (int i = 0; i < pointsCount; i++) {
+            long xBits = Double.doubleToLongBits(nodeX(i));
+            long yBits = Double.doubleToLongBits(nodeValue(i));
+            result = result ^ (int)(xBits ^ (xBits >>> 32)) ^ (int)(yBits ^ (yBits >>> 32));
+        }
+        return result;
+    }
+
+    @Override
+    public TabulatedFunction clone() {
+        return new LazyTabulatedFunction(this);
+    }
+}
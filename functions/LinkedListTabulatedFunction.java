@@ -1,8 +1,8 @@
 package functions;
 
-import java.io.Serializable;
+import java.io.*;
 
-public class LinkedListTabulatedFunction implements TabulatedFunction, Serializable {
+public class LinkedListTabulatedFunction implements TabulatedFunction, Externalizable {
     private class FunctionNode {
         private FunctionPoint point;
         private FunctionNode prev;
@@ -42,6 +42,14 @@ public class LinkedListTabulatedFunction implements TabulatedFunction, Serializa
     private FunctionNode head;
     private int pointsCount;
     private static final double EPSILON = 1e-9;
+
+    // Конструктор по умолчанию для Externalizable
+    public LinkedListTabulatedFunction() {
+        pointsCount = 0;
+        head = new FunctionNode(null, null, null);
+        head.setNext(head);
+        head.setPrev(head);
+    }
     
     public LinkedListTabulatedFunction(FunctionPoint[] points) {
         if (points.length < 2) {
@@ -366,4 +374,32 @@ public class LinkedListTabulatedFunction implements TabulatedFunction, Serializa
         }
         return new LinkedListTabulatedFunction(pointsArray);
     }
+
+    // ==================== Реализация методов Externalizable ====================
+
+    // Вместо графа узлов пишется количество точек и плоский поток координат
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+        out.writeInt(pointsCount);
+        FunctionNode current = head.getNext();
+        while (current != head) {
+            out.writeDouble(current.getPoint().getX());
+            out.writeDouble(current.getPoint().getY());
+            current = current.getNext();
+        }
+    }
+
+    @Override
+    public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+        int count = in.readInt();
+        pointsCount = 0;
+        head = new FunctionNode(null, null, null);
+        head.setNext(head);
+        head.setPrev(head);
+        for (int i = 0; i < count; i++) {
+            double x = in.readDouble();
+            double y = in.readDouble();
+            addNodeToTail(new FunctionPoint(x, y));
+        }
+    }
 }
\ No newline at end of file
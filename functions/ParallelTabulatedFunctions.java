@@ -0,0 +1,280 @@
+package functions;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+// Параллельная загрузка больших файлов в форматах TabulatedFunctions.outputTabulatedFunction
+// и TabulatedFunctions.writeTabulatedFunction. Файл делится на диапазоны байтов, границы
+// выравниваются по записям (16 байт для двоичного формата, строки для текстового),
+// диапазоны разбираются одновременно в массивы double, после чего собирается функция.
+// Упорядоченность X, в том числе на стыках диапазонов, проверяет конструктор ArrayTabulatedFunction.
+public final class ParallelTabulatedFunctions {
+    private static final int RECORD_BYTES = 16;
+    private static final int HEADER_BYTES = 4;
+    // Диапазонов больше, чем потоков, чтобы выровнять нагрузку; размер ограничен для отображения в память
+    private static final int CHUNKS_PER_THREAD = 4;
+    private static final long MIN_CHUNK_BYTES = 1 << 20;
+    private static final long MAX_CHUNK_BYTES = 1 << 28;
+    private static final int READ_BLOCK_BYTES = 1 << 20;
+    // Максимальная длина строки заголовка текстового формата
+    private static final int MAX_HEADER_BYTES = 1 << 12;
+
+    private ParallelTabulatedFunctions() {
+    }
+
+    public static TabulatedFunction inputTabulatedFunction(Path file) throws IOException {
+        return inputTabulatedFunction(file, Runtime.getRuntime().availableProcessors());
+    }
+
+    public static TabulatedFunction inputTabulatedFunction(Path file, int threads) throws IOException {
+        checkThreads(threads);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            while (header.hasRemaining()) {
+                if (channel.read(header, header.position()) < 0) {
+                    throw new EOFException("Неожиданный конец данных табулированной функции");
+                }
+            }
+            int pointsCount = header.getInt(0);
+            if (pointsCount < 0) {
+                throw new StreamCorruptedException("Некорректное количество точек: " + pointsCount);
+            }
+            if (channel.size() < HEADER_BYTES + (long) pointsCount * RECORD_BYTES) {
+                throw new EOFException("Файл короче, чем требует количество точек: " + pointsCount);
+            }
+            double[] xValues = new double[pointsCount];
+            double[] yValues = new double[pointsCount];
+
+            // Границы по записям известны заранее, поэтому каждый диапазон пишет прямо в общие массивы
+            long chunkRecords = Math.max(1, chunkBytes((long) pointsCount * RECORD_BYTES, threads) / RECORD_BYTES);
+            List<Callable<Void>> tasks = new ArrayList<>();
+            for (long from = 0; from < pointsCount; from += chunkRecords) {
+                int start = (int) from;
+                int end = (int) Math.min(pointsCount, from + chunkRecords);
+                tasks.add(() -> {
+                    readRecords(channel, start, end, xValues, yValues);
+                    return null;
+                });
+            }
+            runAll(tasks, threads);
+            return new ArrayTabulatedFunction(xValues, yValues, pointsCount);
+        }
+    }
+
+    public static TabulatedFunction readTabulatedFunction(Path file) throws IOException {
+        return readTabulatedFunction(file, Runtime.getRuntime().availableProcessors());
+    }
+
+    // Требует, чтобы каждая точка находилась на отдельной строке, как пишет writeTabulatedFunction
+    public static TabulatedFunction readTabulatedFunction(Path file, int threads) throws IOException {
+        checkThreads(threads);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteBuffer header = ByteBuffer.allocate((int) Math.min(size, MAX_HEADER_BYTES));
+            channel.read(header, 0);
+            header.flip();
+            long dataStart = 0;
+            while (header.hasRemaining()) {
+                if (header.get() == '\n') {
+                    dataStart = header.position();
+                    break;
+                }
+            }
+            if (dataStart == 0) {
+                throw new StreamCorruptedException("Не найдена строка с количеством точек");
+            }
+            header.flip().limit((int) dataStart);
+            int pointsCount = new DoubleScanner(new AsciiReader(header)).nextInt();
+
+            long chunk = chunkBytes(size - dataStart, threads);
+            List<Long> bounds = new ArrayList<>();
+            bounds.add(dataStart);
+            for (long position = dataStart + chunk; position < size; position += chunk) {
+                long aligned = alignToLine(channel, position, size);
+                if (aligned > bounds.get(bounds.size() - 1) && aligned < size) {
+                    bounds.add(aligned);
+                }
+            }
+            bounds.add(size);
+
+            List<Callable<ParsedChunk>> tasks = new ArrayList<>();
+            for (int i = 0; i + 1 < bounds.size(); i++) {
+                long start = bounds.get(i);
+                long end = bounds.get(i + 1);
+                tasks.add(() -> parseLines(channel.map(FileChannel.MapMode.READ_ONLY, start, end - start)));
+            }
+            List<ParsedChunk> chunks = runAll(tasks, threads);
+
+            long total = 0;
+            for (ParsedChunk parsed : chunks) {
+                total += parsed.count;
+            }
+            if (total != pointsCount) {
+                throw new StreamCorruptedException(
+                    "Количество точек в файле (" + total + ") не совпадает с заголовком (" + pointsCount + ")");
+            }
+            double[] xValues = new double[pointsCount];
+            double[] yValues = new double[pointsCount];
+            int offset = 0;
+            for (ParsedChunk parsed : chunks) {
+                System.arraycopy(parsed.xValues, 0, xValues, offset, parsed.count);
+                System.arraycopy(parsed.yValues, 0, yValues, offset, parsed.count);
+                offset += parsed.count;
+            }
+            return new ArrayTabulatedFunction(xValues, yValues, pointsCount);
+        }
+    }
+
+    private static void checkThreads(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Количество потоков должно быть положительным: " + threads);
+        }
+    }
+
+    private static long chunkBytes(long dataBytes, int threads) {
+        long chunk = dataBytes / ((long) threads * CHUNKS_PER_THREAD) + 1;
+        return Math.min(MAX_CHUNK_BYTES, Math.max(MIN_CHUNK_BYTES, chunk));
+    }
+
+    private static void readRecords(FileChannel channel, int start, int end, double[] xValues, double[] yValues)
+            throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(READ_BLOCK_BYTES);
+        int blockRecords = READ_BLOCK_BYTES / RECORD_BYTES;
+        for (int from = start; from < end; from += blockRecords) {
+            int count = Math.min(blockRecords, end - from);
+            long position = HEADER_BYTES + (long) from * RECORD_BYTES;
+            buffer.clear().limit(count * RECORD_BYTES);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, position + buffer.position()) < 0) {
+                    throw new EOFException("Неожиданный конец данных табулированной функции");
+                }
+            }
+            buffer.flip();
+            for (int i = from; i < from + count; i++) {
+                xValues[i] = buffer.getDouble();
+                yValues[i] = buffer.getDouble();
+            }
+        }
+    }
+
+    // Ближайшее начало строки не раньше position
+    private static long alignToLine(FileChannel channel, long position, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(MAX_HEADER_BYTES);
+        long current = position - 1;
+        while (current < size) {
+            buffer.clear();
+            int read = channel.read(buffer, current);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return current + i + 1;
+                }
+            }
+            current += read;
+        }
+        return size;
+    }
+
+    private static ParsedChunk parseLines(MappedByteBuffer bytes) throws IOException {
+        DoubleScanner scanner = new DoubleScanner(new AsciiReader(bytes));
+        ParsedChunk parsed = new ParsedChunk(Math.max(16, bytes.remaining() / 32));
+        while (scanner.hasNext()) {
+            double x = scanner.nextDouble();
+            if (!scanner.hasNext()) {
+                throw new StreamCorruptedException("Строка содержит только координату X: " + x);
+            }
+            parsed.add(x, scanner.nextDouble());
+        }
+        return parsed;
+    }
+
+    private static <T> List<T> runAll(List<Callable<T>> tasks, int threads) throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, Math.max(1, tasks.size())));
+        try {
+            List<T> results = new ArrayList<>();
+            for (Future<T> future : executor.invokeAll(tasks)) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Загрузка табулированной функции прервана");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static final class ParsedChunk {
+        private double[] xValues;
+        private double[] yValues;
+        private int count;
+
+        ParsedChunk(int capacity) {
+            xValues = new double[capacity];
+            yValues = new double[capacity];
+        }
+
+        void add(double x, double y) {
+            if (count == xValues.length) {
+                int capacity = xValues.length * 2;
+                double[] grownX = new double[capacity];
+                double[] grownY = new double[capacity];
+                System.arraycopy(xValues, 0, grownX, 0, count);
+                System.arraycopy(yValues, 0, grownY, 0, count);
+                xValues = grownX;
+                yValues = grownY;
+            }
+            xValues[count] = x;
+            yValues[count] = y;
+            count++;
+        }
+    }
+
+    // Чтение символов из байтового буфера: числа в текстовом формате состоят из символов ASCII
+    private static final class AsciiReader extends Reader {
+        private final ByteBuffer bytes;
+        private byte[] block = new byte[0];
+
+        AsciiReader(ByteBuffer bytes) {
+            this.bytes = bytes;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) {
+            if (!bytes.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(length, bytes.remaining());
+            if (block.length < count) {
+                block = new byte[count];
+            }
+            bytes.get(block, 0, count);
+            for (int i = 0; i < count; i++) {
+                buffer[offset + i] = (char) (block[i] & 0xFF);
+            }
+            return count;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
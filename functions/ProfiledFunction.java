@@ -0,0 +1,221 @@
+package functions;
+
+import functions.basic.Log;
+import functions.meta.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+// Узел инструментированной копии дерева выражения (см. Functions.profile). Вычисляется так же,
+// как исходный узел, но считает вызовы и выборочно измеряет время: каждое SAMPLE_PERIOD-е
+// вычисление корня в потоке измеряется целиком, и каждый узел получает полное время
+// (с потомками) и собственное время (без потомков). Оценки времени - выборочные суммы,
+// умноженные на отношение всех вызовов узла к измеренным; собственное время включает
+// стоимость самих измерений, что заметно у дешевых узлов. Счетчики - LongAdder,
+// поэтому профилируемую функцию можно вычислять из нескольких потоков.
+public final class ProfiledFunction implements Function {
+    private static final int SAMPLE_PERIOD = 64;
+
+    private static final ThreadLocal<Sampler> SAMPLER = ThreadLocal.withInitial(Sampler::new);
+
+    private final String label;
+    private final Function original;
+    private final Function delegate;
+    private final List<ProfiledFunction> children;
+    private final boolean root;
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder sampledCalls = new LongAdder();
+    private final LongAdder sampledTotalNanos = new LongAdder();
+    private final LongAdder sampledSelfNanos = new LongAdder();
+
+    private ProfiledFunction(String label, Function original, Function delegate, List<ProfiledFunction> children,
+                             boolean root) {
+        this.label = label;
+        this.original = original;
+        this.delegate = delegate;
+        this.children = children;
+        this.root = root;
+    }
+
+    static ProfiledFunction of(Function function) {
+        if (function == null) {
+            throw new IllegalArgumentException("Функция не может быть null");
+        }
+        return mirror(function, true);
+    }
+
+    private static ProfiledFunction mirror(Function function, boolean root) {
+        List<ProfiledFunction> children = new ArrayList<>();
+        Function delegate;
+        String label;
+        Class<?> type = function.getClass();
+        if (type == Sum.class) {
+            Sum sum = (Sum) function;
+            delegate = new Sum(child(sum.getFunction1(), children), child(sum.getFunction2(), children));
+            label = "Sum";
+        } else if (type == Mult.class) {
+            Mult mult = (Mult) function;
+            delegate = new Mult(child(mult.getFunction1(), children), child(mult.getFunction2(), children));
+            label = "Mult";
+        } else if (type == Composition.class) {
+            Composition composition = (Composition) function;
+            delegate = new Composition(child(composition.getInner(), children),
+                child(composition.getOuter(), children));
+            label = "Composition";
+        } else if (type == Power.class) {
+            Power power = (Power) function;
+            delegate = new Power(child(power.getFunction(), children), power.getPower());
+            label = "Power(^" + power.getPower() + ")";
+        } else if (type == Scale.class) {
+            Scale scale = (Scale) function;
+            delegate = new Scale(child(scale.getFunction(), children), scale.getScaleX(), scale.getScaleY());
+            label = "Scale(x*" + scale.getScaleX() + ", y*" + scale.getScaleY() + ")";
+        } else if (type == Shift.class) {
+            Shift shift = (Shift) function;
+            delegate = new Shift(child(shift.getFunction(), children), shift.getShiftX(), shift.getShiftY());
+            label = "Shift(x+" + shift.getShiftX() + ", y+" + shift.getShiftY() + ")";
+        } else if (type == Log.class) {
+            delegate = function;
+            label = "Log(" + ((Log) function).getBase() + ")";
+        } else if (function instanceof TabulatedFunction) {
+            delegate = function;
+            label = type.getSimpleName() + "[" + ((TabulatedFunction) function).getPointsCount() + "]";
+        } else {
+            // Базовые и неизвестные функции профилируются как листья
+            delegate = function;
+            label = type.getSimpleName();
+        }
+        return new ProfiledFunction(label, function, delegate, Collections.unmodifiableList(children), root);
+    }
+
+    private static Function child(Function function, List<ProfiledFunction> children) {
+        ProfiledFunction child = mirror(function, false);
+        children.add(child);
+        return child;
+    }
+
+    @Override
+    public double getLeftDomainBorder() {
+        return delegate.getLeftDomainBorder();
+    }
+
+    @Override
+    public double getRightDomainBorder() {
+        return delegate.getRightDomainBorder();
+    }
+
+    @Override
+    public double getFunctionValue(double x) {
+        calls.increment();
+        Sampler sampler = SAMPLER.get();
+        if (!sampler.active) {
+            if (!root || ++sampler.counter % SAMPLE_PERIOD != 0) {
+                return delegate.getFunctionValue(x);
+            }
+            sampler.active = true;
+            sampler.childNanos = 0;
+        }
+
+        long outerChildNanos = sampler.childNanos;
+        sampler.childNanos = 0;
+        long start = System.nanoTime();
+        try {
+            return delegate.getFunctionValue(x);
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            sampledCalls.increment();
+            sampledTotalNanos.add(elapsed);
+            sampledSelfNanos.add(elapsed - sampler.childNanos);
+            sampler.childNanos = outerChildNanos + elapsed;
+            if (root) {
+                sampler.active = false;
+            }
+        }
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    // Исходный узел, копией которого является этот
+    public Function getOriginal() {
+        return original;
+    }
+
+    public List<ProfiledFunction> getChildren() {
+        return children;
+    }
+
+    public long getCalls() {
+        return calls.sum();
+    }
+
+    public long getSampledCalls() {
+        return sampledCalls.sum();
+    }
+
+    // Оценка полного времени узла с потомками
+    public double getEstimatedTotalNanos() {
+        return estimate(sampledTotalNanos.sum());
+    }
+
+    // Оценка собственного времени узла без потомков
+    public double getEstimatedSelfNanos() {
+        return estimate(sampledSelfNanos.sum());
+    }
+
+    private double estimate(long sampledNanos) {
+        long sampled = sampledCalls.sum();
+        return sampled == 0 ? 0 : (double) sampledNanos * calls.sum() / sampled;
+    }
+
+    // Дерево узлов с долей полного и собственного времени от полного времени корня,
+    // в порядке вложенности, как горизонтальный срез flame graph
+    public String report() {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("%-48s %12s %8s %8s %12s\n", "Узел", "Вызовы", "Полное", "Свое", "Свое, мс"));
+        appendReport(out, "", getEstimatedTotalNanos());
+        return out.toString();
+    }
+
+    private void appendReport(StringBuilder out, String indent, double rootNanos) {
+        String name = indent + label;
+        out.append(String.format("%-48s %12d %7.1f%% %7.1f%% %12.3f\n", name, getCalls(),
+            percent(getEstimatedTotalNanos(), rootNanos), percent(getEstimatedSelfNanos(), rootNanos),
+            getEstimatedSelfNanos() / 1e6));
+        for (ProfiledFunction child : children) {
+            child.appendReport(out, indent + "  ", rootNanos);
+        }
+    }
+
+    // Свернутые стеки для flamegraph.pl и совместимых инструментов: "Sum;Mult;Exp <собственное время, нс>"
+    public String foldedStacks() {
+        StringBuilder out = new StringBuilder();
+        appendFolded(out, "");
+        return out.toString();
+    }
+
+    private void appendFolded(StringBuilder out, String prefix) {
+        String stack = prefix.isEmpty() ? label : prefix + ";" + label;
+        long self = Math.round(getEstimatedSelfNanos());
+        if (self > 0) {
+            out.append(stack.replace(' ', '_')).append(' ').append(self).append('\n');
+        }
+        for (ProfiledFunction child : children) {
+            child.appendFolded(out, stack);
+        }
+    }
+
+    private static double percent(double nanos, double rootNanos) {
+        return rootNanos > 0 ? 100 * nanos / rootNanos : 0;
+    }
+
+    // Состояние выборки в потоке: идет ли измерение и сумма полного времени потомков текущего узла
+    private static final class Sampler {
+        private boolean active;
+        private long counter;
+        private long childNanos;
+    }
+}
@@ -1,8 +1,18 @@
 package functions;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 
 public final class TabulatedFunctions {
+    // Количество точек в одном блоке при потоковой записи (16 байт на точку)
+    private static final int STREAM_CHUNK_POINTS = 8192;
+    // Размер блока для обмена через каналы NIO (должен быть кратен 16 байтам)
+    private static final int CHANNEL_BLOCK_BYTES = 1 << 20;
 
     public static TabulatedFunction tabulate(Function function, double leftX, double rightX, int pointsCount) {
         if(leftX >= rightX){
@@ -14,6 +24,8 @@ public final class TabulatedFunctions {
         if (pointsCount < 2) {
             throw new IllegalArgumentException("Требуется не менее 2 точек");
         }
+        TabulationEvent event = new TabulationEvent();
+        event.begin();
         FunctionPoint[] points = new FunctionPoint[pointsCount];
         double step = (rightX - leftX) / (pointsCount - 1);
         
@@ -22,10 +34,27 @@ public final class TabulatedFunctions {
             points[i] = new FunctionPoint(x, function.getFunctionValue(x));
         }
         
+        commit(event, TabulationEvent.TABULATE, function, leftX, rightX, pointsCount, pointsCount, 0);
         return new ArrayTabulatedFunction(points);
     }
 
+    // Табулирование без вычислений: значения в узлах считаются при первом обращении
+    public static TabulatedFunction tabulateLazy(Function function, double leftX, double rightX, int pointsCount) {
+        if(leftX >= rightX){
+            throw new IllegalArgumentException("Левая граница больше или равна правой");
+        }
+        if (leftX < function.getLeftDomainBorder() || rightX > function.getRightDomainBorder()) {
+            throw new IllegalArgumentException("Заданные границы выходят за область определения");
+        }
+        if (pointsCount < 2) {
+            throw new IllegalArgumentException("Требуется не менее 2 точек");
+        }
+        return new LazyTabulatedFunction(function, leftX, rightX, pointsCount);
+    }
+
     public static void outputTabulatedFunction(TabulatedFunction function, OutputStream out) throws IOException {
+        TabulationEvent event = new TabulationEvent();
+        event.begin();
         DataOutputStream dataOut = new DataOutputStream(out);
         dataOut.writeInt(function.getPointsCount());
         for (int i = 0; i < function.getPointsCount(); ++i) {
@@ -34,46 +63,290 @@ public final class TabulatedFunctions {
             dataOut.writeDouble(point.getY());
         }
         dataOut.flush();
+        commit(event, TabulationEvent.OUTPUT, function, function.getPointsCount(), 0);
+    }
+
+    // Табулирование с записью сразу в поток в формате outputTabulatedFunction,
+    // без построения таблицы в памяти: точки вычисляются и пишутся блоками фиксированного размера
+    public static void outputTabulatedFunction(Function function, double leftX, double rightX, int pointsCount,
+            OutputStream out) throws IOException {
+        outputTabulatedFunction(function, leftX, rightX, pointsCount, out, false);
+    }
+
+    // При pipelined = true вычисление и запись идут в двух потоках через пару буферов,
+    // так что вычисление следующего блока перекрывается с записью предыдущего
+    public static void outputTabulatedFunction(Function function, double leftX, double rightX, int pointsCount,
+            OutputStream out, boolean pipelined) throws IOException {
+        if(leftX >= rightX){
+            throw new IllegalArgumentException("Левая граница больше или равна правой");
+        }
+        if (leftX < function.getLeftDomainBorder() || rightX > function.getRightDomainBorder()) {
+            throw new IllegalArgumentException("Заданные границы выходят за область определения");
+        }
+        if (pointsCount < 2) {
+            throw new IllegalArgumentException("Требуется не менее 2 точек");
+        }
+        TabulationEvent event = new TabulationEvent();
+        event.begin();
+        double step = (rightX - leftX) / (pointsCount - 1);
+        int chunkPoints = Math.min(pointsCount, STREAM_CHUNK_POINTS);
+
+        if (!pipelined) {
+            ByteBuffer buffer = ByteBuffer.allocate(chunkPoints * 16);
+            buffer.putInt(0, pointsCount);
+            out.write(buffer.array(), 0, 4);
+            for (int start = 0; start < pointsCount; start += chunkPoints) {
+                fillChunk(function, leftX, step, start, Math.min(pointsCount, start + chunkPoints), buffer);
+                out.write(buffer.array(), 0, buffer.position());
+            }
+            out.flush();
+            commit(event, TabulationEvent.OUTPUT, function, leftX, rightX, pointsCount, pointsCount,
+                4 + 16L * pointsCount);
+            return;
+        }
+
+        ChunkWriter writer = new ChunkWriter(out, chunkPoints * 16);
+        writer.start();
+        boolean finished = false;
+        try {
+            ByteBuffer header = writer.takeFree();
+            header.putInt(pointsCount);
+            writer.publish(header);
+            for (int start = 0; start < pointsCount && writer.failure == null; start += chunkPoints) {
+                ByteBuffer buffer = writer.takeFree();
+                fillChunk(function, leftX, step, start, Math.min(pointsCount, start + chunkPoints), buffer);
+                writer.publish(buffer);
+            }
+            writer.finish();
+            finished = true;
+        } catch (InterruptedException e) {
+            writer.interrupt();
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Запись табулированной функции прервана");
+        } finally {
+            // Исключение функции при вычислении блока: поток записи завершается, а не ждет буферов
+            if (!finished) {
+                writer.abort();
+            }
+        }
+        if (writer.failure != null) {
+            throw writer.failure;
+        }
+        out.flush();
+        commit(event, TabulationEvent.OUTPUT, function, leftX, rightX, pointsCount, pointsCount,
+            4 + 16L * pointsCount);
+    }
+
+    private static void fillChunk(Function function, double leftX, double step, int from, int to, ByteBuffer buffer) {
+        buffer.clear();
+        for (int i = from; i < to; i++) {
+            double x = leftX + i * step;
+            buffer.putDouble(x);
+            buffer.putDouble(function.getFunctionValue(x));
+        }
+    }
+
+    // Поток записи для конвейерного режима: забирает заполненные буферы и возвращает пустые
+    private static final class ChunkWriter extends Thread {
+        private static final ByteBuffer END = ByteBuffer.allocate(0);
+
+        private final OutputStream out;
+        private final BlockingQueue<ByteBuffer> free = new ArrayBlockingQueue<>(2);
+        private final BlockingQueue<ByteBuffer> filled = new ArrayBlockingQueue<>(3);
+        private volatile IOException failure;
+
+        ChunkWriter(OutputStream out, int bufferSize) {
+            super("TabulatedFunctions-writer");
+            setDaemon(true);
+            this.out = out;
+            free.add(ByteBuffer.allocate(bufferSize));
+            free.add(ByteBuffer.allocate(bufferSize));
+        }
+
+        ByteBuffer takeFree() throws InterruptedException {
+            ByteBuffer buffer = free.take();
+            buffer.clear();
+            return buffer;
+        }
+
+        void publish(ByteBuffer buffer) throws InterruptedException {
+            filled.put(buffer);
+        }
+
+        void finish() throws InterruptedException {
+            filled.put(END);
+            join();
+        }
+
+        // Буферов всего два, поэтому в очереди всегда есть место для END
+        void abort() {
+            filled.offer(END);
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (true) {
+                    ByteBuffer buffer = filled.take();
+                    if (buffer == END) {
+                        return;
+                    }
+                    // После ошибки буферы только возвращаются, чтобы не заблокировать вычисляющий поток
+                    if (failure == null) {
+                        try {
+                            out.write(buffer.array(), 0, buffer.position());
+                        } catch (IOException e) {
+                            failure = e;
+                        }
+                    }
+                    free.put(buffer);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
     }
 
     public static TabulatedFunction inputTabulatedFunction(InputStream in) throws IOException {
+        TabulationEvent event = new TabulationEvent();
+        event.begin();
         DataInputStream dis = new DataInputStream(in); 
         int pointCount = dis.readInt();
-        FunctionPoint[] points = new FunctionPoint[pointCount];
+        double[] xValues = new double[pointCount];
+        double[] yValues = new double[pointCount];
 
         for (int i = 0; i < pointCount; i++) {
-            points[i] = new FunctionPoint(dis.readDouble(), dis.readDouble());
+            xValues[i] = dis.readDouble();
+            yValues[i] = dis.readDouble();
+        }
+        TabulatedFunction function = new ArrayTabulatedFunction(xValues, yValues, pointCount);
+        commit(event, TabulationEvent.INPUT, function, pointCount, 0);
+        return function;
+    }
+
+    // Запись в канал (например, FileChannel) в том же формате, что и outputTabulatedFunction:
+    // координаты переносятся крупными блоками через DoubleBuffer в порядке big-endian
+    public static void outputTabulatedFunction(TabulatedFunction function, WritableByteChannel channel) throws IOException {
+        TabulationEvent event = new TabulationEvent();
+        event.begin();
+        int pointsCount = function.getPointsCount();
+        ByteBuffer buffer = ByteBuffer.allocateDirect((int) Math.min(CHANNEL_BLOCK_BYTES, 4 + pointsCount * 16L));
+        buffer.putInt(pointsCount);
+        buffer.flip();
+        writeFully(channel, buffer);
+
+        double[] block = new double[(int) Math.min(CHANNEL_BLOCK_BYTES, pointsCount * 16L) / 8];
+        int blockPoints = block.length / 2;
+        for (int start = 0; start < pointsCount; start += blockPoints) {
+            int count = Math.min(blockPoints, pointsCount - start);
+            for (int i = 0; i < count; i++) {
+                block[2 * i] = function.getPointX(start + i);
+                block[2 * i + 1] = function.getPointY(start + i);
+            }
+            buffer.clear();
+            buffer.asDoubleBuffer().put(block, 0, 2 * count);
+            buffer.limit(count * 16);
+            writeFully(channel, buffer);
+        }
+        commit(event, TabulationEvent.OUTPUT, function, pointsCount, 0);
+    }
+
+    // Чтение из канала данных, записанных outputTabulatedFunction
+    public static TabulatedFunction inputTabulatedFunction(ReadableByteChannel channel) throws IOException {
+        TabulationEvent event = new TabulationEvent();
+        event.begin();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(CHANNEL_BLOCK_BYTES);
+        buffer.limit(4);
+        readFully(channel, buffer);
+        int pointCount = buffer.getInt(0);
+        if (pointCount < 0) {
+            throw new StreamCorruptedException("Некорректное количество точек: " + pointCount);
+        }
+        double[] xValues = new double[pointCount];
+        double[] yValues = new double[pointCount];
+
+        double[] block = new double[CHANNEL_BLOCK_BYTES / 8];
+        int blockPoints = block.length / 2;
+        for (int start = 0; start < pointCount; start += blockPoints) {
+            int count = Math.min(blockPoints, pointCount - start);
+            buffer.clear();
+            buffer.limit(count * 16);
+            readFully(channel, buffer);
+            buffer.flip();
+            DoubleBuffer doubles = buffer.asDoubleBuffer();
+            doubles.get(block, 0, 2 * count);
+            for (int i = 0; i < count; i++) {
+                xValues[start + i] = block[2 * i];
+                yValues[start + i] = block[2 * i + 1];
+            }
+        }
+        TabulatedFunction function = new ArrayTabulatedFunction(xValues, yValues, pointCount);
+        commit(event, TabulationEvent.INPUT, function, pointCount, 0);
+        return function;
+    }
+
+    // Двоичный формат: 4 байта количества точек и по 16 байт на точку
+    private static void commit(TabulationEvent event, String operation, TabulatedFunction function, int pointsCount,
+                               long evaluations) {
+        if (event.shouldCommit()) {
+            double leftX = pointsCount > 0 ? function.getLeftDomainBorder() : Double.NaN;
+            double rightX = pointsCount > 0 ? function.getRightDomainBorder() : Double.NaN;
+            commit(event, operation, function, leftX, rightX, pointsCount, evaluations, 4 + 16L * pointsCount);
+        }
+    }
+
+    private static void commit(TabulationEvent event, String operation, Function function, double leftX,
+                               double rightX, int pointsCount, long evaluations, long bytes) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.functionClass = function.getClass();
+            event.leftX = leftX;
+            event.rightX = rightX;
+            event.pointsCount = pointsCount;
+            event.evaluations = evaluations;
+            event.bytes = bytes;
+            event.commit();
+        }
+    }
+
+    private static void writeFully(WritableByteChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static void readFully(ReadableByteChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException("Неожиданный конец данных табулированной функции");
+            }
         }
-        return new ArrayTabulatedFunction(points); 
     }
 
     public static void writeTabulatedFunction(TabulatedFunction function, Writer out) throws IOException {
-        BufferedWriter Writer = new BufferedWriter(out);
+        DoubleFormatter formatter = new DoubleFormatter(out);
         int pointsCount = function.getPointsCount();
-        Writer.write(" " + pointsCount);
+        formatter.append(' ').append(pointsCount);
 
         for (int i = 0; i < pointsCount; i++) {
-            FunctionPoint point = function.getPoint(i);
-            Writer.write("\n " + point.getX());
-            Writer.write(" " + point.getY());
+            formatter.append('\n').append(' ').append(function.getPointX(i));
+            formatter.append(' ').append(function.getPointY(i));
         }
-        Writer.flush();
+        formatter.flush();
     }
 
     public static TabulatedFunction readTabulatedFunction(Reader in) throws IOException {
-        StreamTokenizer st = new StreamTokenizer(in);
-        st.nextToken();
-        int pointsCount = (int) st.nval;
-        FunctionPoint[] points = new FunctionPoint[pointsCount];
+        DoubleScanner scanner = new DoubleScanner(in);
+        int pointsCount = scanner.nextInt();
+        double[] xValues = new double[pointsCount];
+        double[] yValues = new double[pointsCount];
         
         for (int i = 0; i < pointsCount; i++) {
-            st.nextToken();
-            double x = st.nval;
-            st.nextToken();
-            double y = st.nval;
-            points[i] = new FunctionPoint(x, y);
+            xValues[i] = scanner.nextDouble();
+            yValues[i] = scanner.nextDouble();
         }
 
-        return new ArrayTabulatedFunction(points);
+        return new ArrayTabulatedFunction(xValues, yValues, pointsCount);
     }
 }
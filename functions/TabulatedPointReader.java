@@ -0,0 +1,206 @@
+package functions;
+
+import java.io.*;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleConsumer;
+import java.util.stream.DoubleStream;
+import java.util.stream.StreamSupport;
+
+// Однопроходное чтение точек табулированной функции из потока без построения таблицы:
+// память не зависит от количества точек. Поддерживаются двоичный формат outputTabulatedFunction,
+// текстовый формат writeTabulatedFunction и компактный формат CompactTabulatedFunctions.
+public abstract class TabulatedPointReader {
+    private final int pointsCount;
+    private int index = -1;
+    protected double x;
+    protected double y;
+
+    // Получатель точек для обработки по мере чтения
+    public interface PointConsumer {
+        void accept(double x, double y);
+    }
+
+    protected TabulatedPointReader(int pointsCount) throws IOException {
+        if (pointsCount < 0) {
+            throw new StreamCorruptedException("Некорректное количество точек: " + pointsCount);
+        }
+        this.pointsCount = pointsCount;
+    }
+
+    public static TabulatedPointReader binary(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+        return new TabulatedPointReader(data.readInt()) {
+            @Override
+            protected void readPoint() throws IOException {
+                x = data.readDouble();
+                y = data.readDouble();
+            }
+        };
+    }
+
+    public static TabulatedPointReader text(Reader in) throws IOException {
+        DoubleScanner scanner = new DoubleScanner(in);
+        return new TabulatedPointReader(scanner.nextInt()) {
+            @Override
+            protected void readPoint() throws IOException {
+                x = scanner.nextDouble();
+                y = scanner.nextDouble();
+            }
+        };
+    }
+
+    public static TabulatedPointReader compact(InputStream in) throws IOException {
+        CompactTabulatedFunctions.Decoder decoder = new CompactTabulatedFunctions.Decoder(in);
+        return new TabulatedPointReader(decoder.getPointsCount()) {
+            @Override
+            protected void readPoint() throws IOException {
+                decoder.next();
+                x = decoder.getX();
+                y = decoder.getY();
+            }
+        };
+    }
+
+    // Чтение очередной точки в поля x и y
+    protected abstract void readPoint() throws IOException;
+
+    public int getPointsCount() {
+        return pointsCount;
+    }
+
+    public boolean hasNext() {
+        return index + 1 < pointsCount;
+    }
+
+    // Переход к следующей точке; false, если точки закончились
+    public boolean next() throws IOException {
+        if (!hasNext()) {
+            return false;
+        }
+        readPoint();
+        index++;
+        return true;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public double getX() {
+        return x;
+    }
+
+    public double getY() {
+        return y;
+    }
+
+    // Передает все оставшиеся точки получателю
+    public void forEach(PointConsumer consumer) throws IOException {
+        while (next()) {
+            consumer.accept(x, y);
+        }
+    }
+
+    // Ленивый поток значений mapper(x, y) по оставшимся точкам, например map((x, y) -> y).
+    // Поток одноразовый и читает тот же источник; ошибки ввода-вывода оборачиваются в UncheckedIOException
+    public DoubleStream map(DoubleBinaryOperator mapper) {
+        int remaining = pointsCount - index - 1;
+        Spliterator.OfDouble spliterator = new Spliterators.AbstractDoubleSpliterator(remaining,
+                Spliterator.ORDERED | Spliterator.SIZED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(DoubleConsumer action) {
+                try {
+                    if (!next()) {
+                        return false;
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                action.accept(mapper.applyAsDouble(x, y));
+                return true;
+            }
+        };
+        return StreamSupport.doubleStream(spliterator, false);
+    }
+
+    // ==================== Обработка на лету ====================
+
+    // Интеграл кусочно-линейной функции по методу трапеций, накапливаемый по мере чтения точек
+    public static class Integral implements PointConsumer {
+        private boolean started;
+        private double previousX;
+        private double previousY;
+        private double value;
+
+        @Override
+        public void accept(double x, double y) {
+            if (started) {
+                value += (previousY + y) * (x - previousX) / 2.0;
+            }
+            started = true;
+            previousX = x;
+            previousY = y;
+        }
+
+        public double getValue() {
+            return value;
+        }
+    }
+
+    // Передискретизация на равномерную сетку линейной интерполяцией по мере чтения точек.
+    // Узлы сетки вне области определения получают NaN, как и в getFunctionValue
+    public static class Resampler implements PointConsumer {
+        private final PointConsumer target;
+        private final double leftX;
+        private final double step;
+        private final int pointsCount;
+        private int nextIndex;
+        private boolean started;
+        private double previousX;
+        private double previousY;
+
+        public Resampler(double leftX, double rightX, int pointsCount, PointConsumer target) {
+            if (leftX >= rightX) {
+                throw new IllegalArgumentException("Левая граница больше или равна правой");
+            }
+            if (pointsCount < 2) {
+                throw new IllegalArgumentException("Требуется не менее 2 точек");
+            }
+            this.target = target;
+            this.leftX = leftX;
+            this.step = (rightX - leftX) / (pointsCount - 1);
+            this.pointsCount = pointsCount;
+        }
+
+        @Override
+        public void accept(double x, double y) {
+            while (nextIndex < pointsCount) {
+                double gridX = leftX + nextIndex * step;
+                if (gridX > x) {
+                    break;
+                }
+                if (!started) {
+                    target.accept(gridX, gridX == x ? y : Double.NaN);
+                } else if (gridX == x) {
+                    target.accept(gridX, y);
+                } else {
+                    target.accept(gridX, previousY + (y - previousY) * (gridX - previousX) / (x - previousX));
+                }
+                nextIndex++;
+            }
+            started = true;
+            previousX = x;
+            previousY = y;
+        }
+
+        // Выдает узлы сетки правее последней прочитанной точки
+        public void finish() {
+            while (nextIndex < pointsCount) {
+                target.accept(leftX + nextIndex * step, Double.NaN);
+                nextIndex++;
+            }
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package functions;
+
+import jdk.jfr.*;
+
+// Событие JFR для табулирования и двоичного ввода-вывода табулированных функций
+@Name(FunctionEvents.TABULATION)
+@Label("Tabulation")
+@Category({"Functions"})
+@Description("Табулирование функции, запись или чтение табулированной функции")
+@Threshold("1 ms")
+final class TabulationEvent extends Event {
+    static final String TABULATE = "tabulate";
+    static final String OUTPUT = "output";
+    static final String INPUT = "input";
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Function Class")
+    Class<?> functionClass;
+
+    @Label("Left X")
+    double leftX;
+
+    @Label("Right X")
+    double rightX;
+
+    @Label("Points Count")
+    int pointsCount;
+
+    @Label("Evaluations")
+    long evaluations;
+
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+}
@@ -17,4 +17,17 @@ public class Exp implements Function{
     public double getFunctionValue(double x) {
         return Math.exp(x);
     }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o != null && getClass() == o.getClass();
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().getName().hashCode();
+    }
 }
\ No newline at end of file
@@ -38,4 +38,20 @@ public class Log implements Function {
     public String toString() {
         return String.format("log_%.4f(x)", base);
     }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        return Double.compare(base, ((Log) o).base) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return Double.hashCode(base);
+    }
 }
\ No newline at end of file
@@ -12,4 +12,18 @@ public abstract class TrigonometricFunction implements Function{
     public double getRightDomainBorder() {
         return Double.POSITIVE_INFINITY;
     }
+
+    // Тригонометрические функции без параметров равны, если совпадает класс
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o != null && getClass() == o.getClass();
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().getName().hashCode();
+    }
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package functions.meta;
 
 import functions.Function;
+import java.util.Objects;
 
 public class Composition implements Function {
     private Function Func1;
@@ -31,4 +32,31 @@ public class Composition implements Function {
         }
         return Func1.getFunctionValue(Func2.getFunctionValue(x));
     }
+
+    // Внутренняя функция: вычисляется первой
+    public Function getInner() {
+        return Func2;
+    }
+
+    // Внешняя функция: применяется к результату внутренней
+    public Function getOuter() {
+        return Func1;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        Composition other = (Composition) o;
+        return Func1.equals(other.Func1) && Func2.equals(other.Func2);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getClass().getName(), Func1, Func2);
+    }
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package functions.meta;
 
 import functions.Function;
+import java.util.Objects;
 
 public class Mult implements Function {
     private Function Func1;
@@ -31,4 +32,29 @@ public class Mult implements Function {
         }
         return Func1.getFunctionValue(x) * Func2.getFunctionValue(x);
     }
+
+    public Function getFunction1() {
+        return Func1;
+    }
+
+    public Function getFunction2() {
+        return Func2;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        Mult other = (Mult) o;
+        return Func1.equals(other.Func1) && Func2.equals(other.Func2);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getClass().getName(), Func1, Func2);
+    }
 }
\ No newline at end of file
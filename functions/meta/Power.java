@@ -1,6 +1,7 @@
 package functions.meta;
 
 import functions.Function;
+import java.util.Objects;
 
 public class Power implements Function {
     private Function Func;
@@ -31,4 +32,29 @@ public class Power implements Function {
         }
         return Math.pow(Func.getFunctionValue(x), cons);
     }
+
+    public Function getFunction() {
+        return Func;
+    }
+
+    public double getPower() {
+        return cons;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        Power other = (Power) o;
+        return Double.compare(cons, other.cons) == 0 && Func.equals(other.Func);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getClass().getName(), Func, cons);
+    }
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package functions.meta;
 
 import functions.Function;
+import java.util.Objects;
 
 public class Scale implements Function {
     private Function Func;
@@ -45,4 +46,34 @@ public class Scale implements Function {
         }
         return Func.getFunctionValue(x * scaleX) * scaleY;
     }
+
+    public Function getFunction() {
+        return Func;
+    }
+
+    public double getScaleX() {
+        return scaleX;
+    }
+
+    public double getScaleY() {
+        return scaleY;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        Scale other = (Scale) o;
+        return Double.compare(scaleX, other.scaleX) == 0 && Double.compare(scaleY, other.scaleY) == 0
+            && Func.equals(other.Func);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getClass().getName(), Func, scaleX, scaleY);
+    }
 }
\ No newline at end of file
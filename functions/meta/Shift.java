@@ -1,6 +1,7 @@
 package functions.meta;
 
 import functions.Function;
+import java.util.Objects;
 
 public class Shift implements Function {
     Function Func;
@@ -29,5 +30,34 @@ public class Shift implements Function {
     public double getFunctionValue(double x){
         return Func.getFunctionValue(x + shiftX) + shiftY;
     }
-    
+
+    public Function getFunction() {
+        return Func;
+    }
+
+    public double getShiftX() {
+        return shiftX;
+    }
+
+    public double getShiftY() {
+        return shiftY;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        Shift other = (Shift) o;
+        return Double.compare(shiftX, other.shiftX) == 0 && Double.compare(shiftY, other.shiftY) == 0
+            && Func.equals(other.Func);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getClass().getName(), Func, shiftX, shiftY);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,293 @@
+package threads;
+
+import functions.Function;
+import java.io.*;
+import java.util.Formatter;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+// Асинхронный вывод сообщений: вызывающие потоки только записывают примитивные поля
+// сообщения в заранее выделенное кольцо, а форматирование и запись через большой буфер
+// выполняет отдельный поток, пачками по всем накопившимся сообщениям.
+//
+// Писать в кольцо могут несколько потоков: номер ячейки выдается атомарным счетчиком,
+// готовность ячейки отмечается записью ее номера в published. Если кольцо заполнено,
+// вызывающий поток ждет освобождения ячейки (не ввода-вывода).
+//
+// Без сообщений поток вывода недолго ждет активно, затем засыпает до первой публикации:
+// простаивающий вывод не просыпается периодически.
+public class AsyncResultSink implements ResultSink, AutoCloseable {
+    private static final int GENERATED = 0;
+    private static final int INTEGRATED = 1;
+    private static final int FAILED = 2;
+    private static final int MESSAGE = 3;
+
+    private static final int DEFAULT_CAPACITY = 1 << 14;
+    private static final int BUFFER_SIZE = 1 << 16;
+    // Сколько сообщений поток вывода обрабатывает до освобождения ячеек
+    private static final int RELEASE_BATCH = 256;
+    // Попыток ожидания (активного и с уступкой процессора) перед засыпанием потока вывода
+    private static final int IDLE_ATTEMPTS = 200;
+
+    private static AsyncResultSink console;
+
+    private final int mask;
+    private final byte[] kinds;
+    private final long[] indices;
+    private final double[] leftBorders;
+    private final double[] rightBorders;
+    private final double[] steps;
+    private final double[] results;
+    private final String[] sources;
+    // Класс функции для GENERATED, текст для FAILED и MESSAGE
+    private final Object[] details;
+    // Номер сообщения + 1 в ячейке после ее заполнения
+    private final AtomicLongArray published;
+
+    private final AtomicLong claimed = new AtomicLong();
+    private volatile long consumed;
+    private volatile long written;
+
+    private final Writer out;
+    private final boolean ownsStream;
+    private final Thread writer;
+    private volatile boolean closed;
+    // Поток вывода заснул или собирается заснуть; публикующий поток должен его разбудить
+    private volatile boolean sleeping;
+    private volatile IOException failure;
+
+    public AsyncResultSink(OutputStream out, int capacity) {
+        this(out, capacity, true);
+    }
+
+    private AsyncResultSink(OutputStream out, int capacity, boolean ownsStream) {
+        if (capacity < 1 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Емкость должна быть положительной степенью двойки: " + capacity);
+        }
+        this.mask = capacity - 1;
+        this.kinds = new byte[capacity];
+        this.indices = new long[capacity];
+        this.leftBorders = new double[capacity];
+        this.rightBorders = new double[capacity];
+        this.steps = new double[capacity];
+        this.results = new double[capacity];
+        this.sources = new String[capacity];
+        this.details = new Object[capacity];
+        this.published = new AtomicLongArray(capacity);
+        this.out = new BufferedWriter(new OutputStreamWriter(out), BUFFER_SIZE);
+        this.ownsStream = ownsStream;
+        this.writer = new Thread(this::drain, "result-sink-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    // Общий асинхронный вывод в System.out; сбрасывается и останавливается при завершении JVM
+    public static synchronized AsyncResultSink console() {
+        if (console == null) {
+            AsyncResultSink sink = new AsyncResultSink(System.out, DEFAULT_CAPACITY, false);
+            Runtime.getRuntime().addShutdownHook(new Thread(sink::close, "result-sink-shutdown"));
+            console = sink;
+        }
+        return console;
+    }
+
+    @Override
+    public void taskGenerated(String source, long index, Function function, double leftBorder, double rightBorder,
+                              double step) {
+        long sequence = claim();
+        if (sequence < 0) {
+            return;
+        }
+        int slot = (int) sequence & mask;
+        fill(slot, GENERATED, source, index, leftBorder, rightBorder, step, 0, function.getClass());
+        publish(slot, sequence);
+    }
+
+    @Override
+    public void taskIntegrated(String source, long index, double leftBorder, double rightBorder, double step,
+                               double result) {
+        long sequence = claim();
+        if (sequence < 0) {
+            return;
+        }
+        int slot = (int) sequence & mask;
+        fill(slot, INTEGRATED, source, index, leftBorder, rightBorder, step, result, null);
+        publish(slot, sequence);
+    }
+
+    @Override
+    public void taskFailed(String source, long index, String message) {
+        long sequence = claim();
+        if (sequence < 0) {
+            return;
+        }
+        int slot = (int) sequence & mask;
+        fill(slot, FAILED, source, index, 0, 0, 0, 0, message);
+        publish(slot, sequence);
+    }
+
+    @Override
+    public void message(String text) {
+        long sequence = claim();
+        if (sequence < 0) {
+            return;
+        }
+        int slot = (int) sequence & mask;
+        fill(slot, MESSAGE, null, 0, 0, 0, 0, 0, text);
+        publish(slot, sequence);
+    }
+
+    // Ожидает записи в поток всех сообщений, переданных до вызова
+    @Override
+    public void flush() {
+        long target = claimed.get();
+        int attempt = 0;
+        while (written < target && writer.isAlive()) {
+            SpscRingBuffer.PARK.idle(attempt++);
+        }
+    }
+
+    // Выводит оставшиеся сообщения и останавливает поток вывода; последующие сообщения отбрасываются
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            if (ownsStream) {
+                out.close();
+            } else {
+                out.flush();
+            }
+        } catch (IOException e) {
+            failure = e;
+        }
+    }
+
+    // Первая ошибка записи; после нее сообщения отбрасываются
+    public IOException getFailure() {
+        return failure;
+    }
+
+    // Номер ячейки или -1, если вывод закрыт: после закрытия сообщение отбрасывается сразу,
+    // а не ждет места в кольце, которое остановленный поток вывода уже не освободит
+    private long claim() {
+        if (closed) {
+            return -1;
+        }
+        long sequence = claimed.getAndIncrement();
+        int attempt = 0;
+        while (sequence - consumed > mask) {
+            if (closed && !writer.isAlive()) {
+                return -1;
+            }
+            SpscRingBuffer.PARK.idle(attempt++);
+        }
+        return sequence;
+    }
+
+    // Запись номера - volatile, а не lazySet: иначе чтение sleeping могло бы выполниться раньше нее,
+    // и заснувший поток вывода пропустил бы сообщение
+    private void publish(int slot, long sequence) {
+        published.set(slot, sequence + 1);
+        if (sleeping) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    private void fill(int slot, int kind, String source, long index, double leftBorder, double rightBorder,
+                      double step, double result, Object detail) {
+        kinds[slot] = (byte) kind;
+        sources[slot] = source;
+        indices[slot] = index;
+        leftBorders[slot] = leftBorder;
+        rightBorders[slot] = rightBorder;
+        steps[slot] = step;
+        results[slot] = result;
+        details[slot] = detail;
+    }
+
+    private void drain() {
+        StringBuilder text = new StringBuilder();
+        Formatter formatter = new Formatter(text);
+        long next = 0;
+        int attempt = 0;
+        while (true) {
+            int slot = (int) next & mask;
+            if (published.get(slot) == next + 1) {
+                format(formatter, slot);
+                details[slot] = null;
+                next++;
+                attempt = 0;
+                if ((next & (RELEASE_BATCH - 1)) == 0) {
+                    write(text);
+                    consumed = next;
+                }
+                continue;
+            }
+            // Новых сообщений нет: записываются накопленные, буфер сбрасывается
+            write(text);
+            consumed = next;
+            try {
+                if (failure == null) {
+                    out.flush();
+                }
+            } catch (IOException e) {
+                failure = e;
+            }
+            written = next;
+            if (closed && claimed.get() == next) {
+                return;
+            }
+            if (attempt < IDLE_ATTEMPTS) {
+                SpscRingBuffer.PARK.idle(attempt++);
+                continue;
+            }
+            // Признак выставляется до повторной проверки: сообщение, опубликованное после нее,
+            // увидит sleeping и разбудит поток
+            sleeping = true;
+            if (published.get((int) next & mask) != next + 1 && !closed) {
+                LockSupport.park(this);
+            }
+            sleeping = false;
+        }
+    }
+
+    private void format(Formatter formatter, int slot) {
+        switch (kinds[slot]) {
+            case GENERATED:
+                formatter.format("(%s %d) Создано: %s на [%.6f, %.6f], шаг=%.6f\n",
+                    sources[slot], indices[slot], ((Class<?>) details[slot]).getSimpleName(),
+                    leftBorders[slot], rightBorders[slot], steps[slot]);
+                break;
+            case INTEGRATED:
+                formatter.format("(%s %d) на [%.6f, %.6f], шаг=%.6f result = %.6f \n",
+                    sources[slot], indices[slot], leftBorders[slot], rightBorders[slot], steps[slot], results[slot]);
+                break;
+            case FAILED:
+                formatter.format("(%s %d) ОШИБКА: %s\n", sources[slot], indices[slot], details[slot]);
+                break;
+            default:
+                formatter.format("%s\n", details[slot]);
+        }
+    }
+
+    private void write(StringBuilder text) {
+        if (text.length() == 0) {
+            return;
+        }
+        try {
+            if (failure == null) {
+                out.append(text);
+            }
+        } catch (IOException e) {
+            failure = e;
+        }
+        text.setLength(0);
+    }
+}
@@ -0,0 +1,84 @@
+package threads;
+
+import java.util.concurrent.Semaphore;
+
+// Генератор, публикующий задания блоками: блоки заполняются по очереди в кольце буферов,
+// и dataReady освобождается один раз на блок. Начальное значение dataProcessed
+// должно равняться количеству буферов, чтобы генератор заполнял следующий блок,
+// пока интегратор обрабатывает предыдущий.
+public class BatchGenerator extends Thread {
+    private final TaskBatch[] buffers;
+    private final Semaphore dataReady;
+    private final Semaphore dataProcessed;
+    private final long taskCount;
+    private final TaskFactory factory;
+
+    public BatchGenerator(TaskBatch[] buffers, Semaphore dataReady, Semaphore dataProcessed,
+                          long taskCount, TaskFactory factory) {
+        this.buffers = buffers;
+        this.dataReady = dataReady;
+        this.dataProcessed = dataProcessed;
+        this.taskCount = taskCount;
+        this.factory = factory;
+    }
+
+    public BatchGenerator(TaskBatch[] buffers, Semaphore dataReady, Semaphore dataProcessed, long taskCount) {
+        this(buffers, dataReady, dataProcessed, taskCount, new RandomTaskFactory());
+    }
+
+    @Override
+    public void run() {
+        System.out.println("BatchGenerator: начало работы");
+
+        int blockSize = buffers[0].getCapacity();
+        long blockCount = (taskCount + blockSize - 1) / blockSize;
+        long id = 0;
+        long published = 0;
+        try {
+            for (long block = 0; block < blockCount; block++) {
+                try {
+                    dataProcessed.acquire();
+                } catch (InterruptedException e) {
+                    System.out.println("BatchGenerator прерван");
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+
+                TaskBatch batch = buffers[(int) (block % buffers.length)];
+                batch.clear();
+                try {
+                    int errors = 0;
+                    long end = Math.min(taskCount, id + blockSize);
+                    for (; id < end; id++) {
+                        try {
+                            batch.add(factory.createTask(id));
+                        } catch (RuntimeException e) {
+                            errors++;
+                        }
+                    }
+                    if (errors > 0) {
+                        System.out.printf("(BatchGenerator %d) ОШИБКА генерации: %d заданий пропущено\n", block, errors);
+                    }
+                } finally {
+                    dataReady.release();
+                    published++;
+                }
+            }
+        } finally {
+            // Интегратор ждет ровно blockCount блоков: после непредвиденной ошибки
+            // оставшиеся блоки передаются пустыми
+            for (; published < blockCount && !Thread.currentThread().isInterrupted(); published++) {
+                try {
+                    dataProcessed.acquire();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                buffers[(int) (published % buffers.length)].clear();
+                dataReady.release();
+            }
+        }
+
+        System.out.println("BatchGenerator: завершение работы");
+    }
+}
@@ -0,0 +1,125 @@
+package threads;
+
+import functions.Function;
+import functions.Functions;
+import java.util.Arrays;
+import java.util.Formatter;
+import java.util.concurrent.Semaphore;
+
+// Интегратор, забирающий за одно пробуждение весь блок BatchGenerator. Задания блока
+// группируются по функции, и задания одной функции с общим шагом, левые границы которых лежат
+// на одной сетке этого шага, интегрируются одним вызовом многоинтервального Functions.integrate:
+// значения функции в общих узлах вычисляются один раз. Результат задания при этом тот же,
+// что и при интегрировании по отдельности, и не зависит от соседей по блоку. Результаты блока форматируются в один буфер и выводятся одной операцией.
+public class BatchIntegrator extends Thread {
+    private final TaskBatch[] buffers;
+    private final Semaphore dataReady;
+    private final Semaphore dataProcessed;
+    private final long taskCount;
+
+    public BatchIntegrator(TaskBatch[] buffers, Semaphore dataReady, Semaphore dataProcessed, long taskCount) {
+        this.buffers = buffers;
+        this.dataReady = dataReady;
+        this.dataProcessed = dataProcessed;
+        this.taskCount = taskCount;
+    }
+
+    @Override
+    public void run() {
+        System.out.println("BatchIntegrator: начало работы");
+
+        int blockSize = buffers[0].getCapacity();
+        long blockCount = (taskCount + blockSize - 1) / blockSize;
+        double[] results = new double[blockSize];
+        String[] errors = new String[blockSize];
+        boolean[] done = new boolean[blockSize];
+        int[] group = new int[blockSize];
+        StringBuilder output = new StringBuilder();
+        Formatter formatter = new Formatter(output);
+        for (long block = 0; block < blockCount; block++) {
+            try {
+                dataReady.acquire();
+            } catch (InterruptedException e) {
+                System.out.println("BatchIntegrator прерван");
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            TaskBatch batch = buffers[(int) (block % buffers.length)];
+            batch.groupByFunction();
+            int size = batch.size();
+            Arrays.fill(done, 0, size, false);
+            for (int i = 0; i < size; i++) {
+                if (done[i]) {
+                    continue;
+                }
+                // Задания той же функции с тем же шагом и на той же сетке; после группировки
+                // задания одной функции лежат в одном отрезке блока
+                Function function = batch.get(i).getFunction();
+                double step = batch.get(i).getStep();
+                double left = batch.get(i).getLeftBorder();
+                int count = 0;
+                for (int j = i; j < size && batch.get(j).getFunction() == function; j++) {
+                    IntegrationTask candidate = batch.get(j);
+                    if (!done[j] && candidate.getStep() == step
+                            && onCommonGrid(left, candidate.getLeftBorder(), step)) {
+                        group[count++] = j;
+                        done[j] = true;
+                    }
+                }
+                integrate(batch, group, count, results, errors);
+            }
+
+            output.setLength(0);
+            for (int i = 0; i < size; i++) {
+                IntegrationTask task = batch.get(i);
+                if (errors[i] == null) {
+                    formatter.format("(Integrator %d) на [%.6f, %.6f], шаг=%.6f result = %.6f \n",
+                        task.getId(), task.getLeftBorder(), task.getRightBorder(), task.getStep(), results[i]);
+                } else {
+                    formatter.format("(Integrator %d) ОШИБКА вычисления: %s\n", task.getId(), errors[i]);
+                    errors[i] = null;
+                }
+            }
+            dataProcessed.release();
+            System.out.print(output);
+        }
+
+        System.out.println("BatchIntegrator: завершение работы");
+    }
+
+    private static boolean onCommonGrid(double a, double b, double step) {
+        return Functions.isOnGrid(Math.min(a, b), step, Math.max(a, b));
+    }
+
+    // Интегрирует задания group[0..count-1] одной функции с общим шагом. Многоинтервальное
+    // интегрирование отклоняет всю группу, если ошибочно хотя бы одно задание, поэтому
+    // после ошибки задания группы интегрируются по одному, чтобы ошибка досталась своему заданию
+    private static void integrate(TaskBatch batch, int[] group, int count, double[] results, String[] errors) {
+        if (count > 1) {
+            double[] leftX = new double[count];
+            double[] rightX = new double[count];
+            for (int k = 0; k < count; k++) {
+                leftX[k] = batch.get(group[k]).getLeftBorder();
+                rightX[k] = batch.get(group[k]).getRightBorder();
+            }
+            IntegrationTask first = batch.get(group[0]);
+            try {
+                double[] values = Functions.integrate(first.getFunction(), leftX, rightX, first.getStep());
+                for (int k = 0; k < count; k++) {
+                    results[group[k]] = values[k];
+                }
+                return;
+            } catch (IllegalArgumentException e) {
+                // Ошибочное задание определяется по одному ниже
+            }
+        }
+        for (int k = 0; k < count; k++) {
+            try {
+                results[group[k]] = batch.get(group[k]).integrate();
+            } catch (IllegalArgumentException e) {
+                errors[group[k]] = e.getMessage();
+            }
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package threads;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+
+// Журнал завершенных заданий для продолжения пакета после сбоя. Файл - заголовок и записи
+// фиксированного размера (номер задания, результат, признак ошибки, контрольная сумма),
+// дописываемые через отображение файла в память областями по REGION_SIZE байт.
+// Контрольная сумма пишется последней: недописанная при сбое запись и нулевой хвост области
+// не проходят проверку, и при открытии журнал продолжается с первой такой записи.
+// force() выполняется каждые forceEvery записей и при закрытии; после сбоя ОС теряются
+// только записи после последнего force(), после сбоя процесса - ни одной.
+//
+// Номера заданий - от 0 до Integer.MAX_VALUE. Методы синхронизированы: генератор проверяет
+// задания, пока интегратор дописывает результаты.
+public class CheckpointJournal implements AutoCloseable {
+    private static final long MAGIC = 0x4A524E4C_494E5431L;
+    private static final int HEADER_SIZE = 16;
+    private static final int RECORD_SIZE = 24;
+    private static final int REGION_SIZE = RECORD_SIZE * 16384;
+    private static final int FAILED = 1;
+
+    // Получатель записей журнала в порядке их добавления
+    public interface Visitor {
+        void visit(long taskId, double result, boolean failed);
+    }
+
+    private final FileChannel channel;
+    private final int forceEvery;
+    private final BitSet completed = new BitSet();
+    private MappedByteBuffer region;
+    private long regionStart;
+    private long position;
+    private int restored;
+    private int unforced;
+    private boolean closed;
+
+    private CheckpointJournal(FileChannel channel, int forceEvery) {
+        this.channel = channel;
+        this.forceEvery = forceEvery;
+    }
+
+    // Открывает журнал, создавая его при отсутствии; записи существующего журнала
+    // считаются завершенными заданиями
+    public static CheckpointJournal open(Path path, int forceEvery) throws IOException {
+        if (forceEvery < 1) {
+            throw new IllegalArgumentException("Период force() должен быть положительным: " + forceEvery);
+        }
+        FileChannel channel = FileChannel.open(path,
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            CheckpointJournal journal = new CheckpointJournal(channel, forceEvery);
+            journal.recover();
+            return journal;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    // Читает записи журнала, не открывая его для записи
+    public static int replay(Path path, Visitor visitor) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return scan(channel, visitor);
+        }
+    }
+
+    public synchronized boolean isCompleted(long taskId) {
+        return completed.get(checkId(taskId));
+    }
+
+    // Количество заданий, восстановленных из журнала при открытии
+    public synchronized int getRestoredCount() {
+        return restored;
+    }
+
+    public synchronized int getCompletedCount() {
+        return completed.cardinality();
+    }
+
+    public synchronized void recordResult(long taskId, double result) throws IOException {
+        append(taskId, result, 0);
+    }
+
+    // Ошибка интегрирования детерминирована и при повторном запуске не исправится,
+    // поэтому такое задание тоже считается завершенным
+    public synchronized void recordFailure(long taskId) throws IOException {
+        append(taskId, Double.NaN, FAILED);
+    }
+
+    public synchronized void force() {
+        if (unforced > 0) {
+            region.force();
+            unforced = 0;
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            force();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void append(long taskId, double result, int flags) throws IOException {
+        if (closed) {
+            throw new IllegalStateException("Журнал закрыт");
+        }
+        int id = checkId(taskId);
+        if (position + RECORD_SIZE > regionStart + REGION_SIZE) {
+            force();
+            mapRegion(position);
+        }
+        int offset = (int) (position - regionStart);
+        long bits = Double.doubleToRawLongBits(result);
+        region.putLong(offset, taskId);
+        region.putLong(offset + 8, bits);
+        region.putInt(offset + 16, flags);
+        region.putInt(offset + 20, checksum(taskId, bits, flags));
+        position += RECORD_SIZE;
+        completed.set(id);
+        if (++unforced >= forceEvery) {
+            force();
+        }
+    }
+
+    private void recover() throws IOException {
+        if (channel.size() == 0) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putLong(MAGIC).putLong(RECORD_SIZE);
+            header.flip();
+            while (header.hasRemaining()) {
+                channel.write(header, HEADER_SIZE - header.remaining());
+            }
+        }
+        restored = scan(channel, (taskId, result, failed) -> completed.set((int) taskId));
+        position = HEADER_SIZE + (long) restored * RECORD_SIZE;
+        mapRegion(position);
+    }
+
+    private void mapRegion(long start) throws IOException {
+        region = channel.map(FileChannel.MapMode.READ_WRITE, start, REGION_SIZE);
+        regionStart = start;
+    }
+
+    private static int scan(FileChannel channel, Visitor visitor) throws IOException {
+        long size = channel.size();
+        if (size < HEADER_SIZE) {
+            throw new IOException("Файл журнала поврежден: нет заголовка");
+        }
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        if (buffer.getLong(0) != MAGIC || buffer.getLong(8) != RECORD_SIZE) {
+            throw new IOException("Файл не является журналом заданий");
+        }
+        int count = 0;
+        for (long offset = HEADER_SIZE; offset + RECORD_SIZE <= size; offset += RECORD_SIZE) {
+            int at = (int) offset;
+            long taskId = buffer.getLong(at);
+            long bits = buffer.getLong(at + 8);
+            int flags = buffer.getInt(at + 16);
+            if (buffer.getInt(at + 20) != checksum(taskId, bits, flags)
+                    || taskId < 0 || taskId > Integer.MAX_VALUE) {
+                break;
+            }
+            visitor.visit(taskId, Double.longBitsToDouble(bits), (flags & FAILED) != 0);
+            count++;
+        }
+        return count;
+    }
+
+    // Не равна нулю для нулевой записи, поэтому нулевой хвост области не принимается за запись
+    private static int checksum(long taskId, long bits, int flags) {
+        long h = (taskId * 0x9E3779B97F4A7C15L) ^ (bits * 0xC2B2AE3D27D4EB4FL) ^ flags;
+        h ^= h >>> 29;
+        return (int) (h ^ (h >>> 32)) ^ 0x5BD1E995;
+    }
+
+    private static int checkId(long taskId) {
+        if (taskId < 0 || taskId > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Номер задания вне допустимого диапазона: " + taskId);
+        }
+        return (int) taskId;
+    }
+}
@@ -0,0 +1,277 @@
+package threads;
+
+import functions.Function;
+import functions.Functions;
+import functions.LazyTabulatedFunction;
+import functions.TabulatedFunction;
+import functions.basic.Log;
+import functions.meta.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+// Выполнение пачки заданий несколькими потоками с учетом стоимости заданий.
+//
+// Стоимость задания оценивается как количество шагов (right - left) / step, умноженное
+// на стоимость вычисления функции (см. functionCost). Задания дороже total / (workers * PIECES_PER_WORKER)
+// делятся на части по узлам сетки шага, так что сумма частей совпадает с исходным интегралом
+// с точностью до округления. Части раздаются потокам от самой дорогой к самой дешевой
+// (longest processing time first), поэтому в конце пачки не остаются одиночные долгие задания,
+// и время пачки приближается к общей работе, деленной на количество потоков.
+// Результат задания передается получателю после завершения всех его частей.
+public class CostAwareScheduler {
+    // Сколько частей в среднем приходится на поток; больше - ровнее загрузка, но больше накладных расходов
+    private static final int PIECES_PER_WORKER = 4;
+    // Части короче этого количества шагов не выделяются
+    private static final long MIN_PIECE_STEPS = 4096;
+
+    private final int workerCount;
+
+    public CostAwareScheduler(int workerCount) {
+        if (workerCount < 1) {
+            throw new IllegalArgumentException("Количество потоков должно быть положительным: " + workerCount);
+        }
+        this.workerCount = workerCount;
+    }
+
+    public CostAwareScheduler() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    // Относительная стоимость одного вычисления функции; вычисление Exp стоит 1
+    public static double functionCost(Function function) {
+        if (function instanceof Sum) {
+            Sum sum = (Sum) function;
+            return functionCost(sum.getFunction1()) + functionCost(sum.getFunction2());
+        }
+        if (function instanceof Mult) {
+            Mult mult = (Mult) function;
+            return functionCost(mult.getFunction1()) + functionCost(mult.getFunction2());
+        }
+        if (function instanceof Composition) {
+            Composition composition = (Composition) function;
+            return functionCost(composition.getInner()) + functionCost(composition.getOuter());
+        }
+        if (function instanceof Power) {
+            return functionCost(((Power) function).getFunction()) + 2;
+        }
+        if (function instanceof Scale) {
+            return functionCost(((Scale) function).getFunction());
+        }
+        if (function instanceof Shift) {
+            return functionCost(((Shift) function).getFunction());
+        }
+        if (function instanceof LazyTabulatedFunction) {
+            return 1;
+        }
+        if (function instanceof TabulatedFunction) {
+            // Интервал интерполяции ищется перебором точек
+            return 1 + ((TabulatedFunction) function).getPointsCount() / 8.0;
+        }
+        if (function instanceof Log) {
+            return 2;
+        }
+        return 1;
+    }
+
+    public static double estimateCost(IntegrationTask task) {
+        return stepCount(task) * functionCost(task.getFunction());
+    }
+
+    // Выполняет задания и возвращает управление после передачи всех результатов.
+    // Получатель вызывается из рабочих потоков, но никогда одновременно из двух потоков.
+    // Исключение задания передается получателю как ошибка задания; исключение получателя
+    // или ошибка рабочего потока останавливает выполнение и пробрасывается из run
+    public void run(Collection<IntegrationTask> tasks, Consumer<IntegrationResult> consumer)
+            throws InterruptedException {
+        double totalCost = 0;
+        double[] costs = new double[tasks.size()];
+        int index = 0;
+        for (IntegrationTask task : tasks) {
+            costs[index] = estimateCost(task);
+            totalCost += costs[index++];
+        }
+        double pieceCost = totalCost / ((double) workerCount * PIECES_PER_WORKER);
+
+        Delivery delivery = new Delivery(consumer);
+        List<Piece> pieces = new ArrayList<>();
+        index = 0;
+        for (IntegrationTask task : tasks) {
+            split(task, costs[index++], pieceCost, delivery, pieces);
+        }
+        Piece[] order = pieces.toArray(new Piece[0]);
+        Arrays.sort(order, (a, b) -> Double.compare(b.cost, a.cost));
+
+        AtomicInteger next = new AtomicInteger();
+        Thread[] workers = new Thread[Math.min(workerCount, Math.max(1, order.length))];
+        for (int w = 0; w < workers.length; w++) {
+            workers[w] = new Thread(() -> {
+                int i;
+                while (!delivery.isFailed() && (i = next.getAndIncrement()) < order.length
+                        && !Thread.currentThread().isInterrupted()) {
+                    try {
+                        order[i].execute();
+                    } catch (Throwable e) {
+                        delivery.fail(e);
+                    }
+                }
+            }, "scheduler-worker-" + w);
+            workers[w].start();
+        }
+        try {
+            for (Thread worker : workers) {
+                worker.join();
+            }
+        } catch (InterruptedException e) {
+            for (Thread worker : workers) {
+                worker.interrupt();
+            }
+            throw e;
+        }
+        delivery.rethrow();
+    }
+
+    private static double stepCount(IntegrationTask task) {
+        double steps = Math.ceil((task.getRightBorder() - task.getLeftBorder()) / task.getStep());
+        return steps > 0 ? steps : 1;
+    }
+
+    private static void split(IntegrationTask task, double cost, double pieceCost,
+                              Consumer<IntegrationResult> consumer, List<Piece> pieces) {
+        double left = task.getLeftBorder();
+        double right = task.getRightBorder();
+        double step = task.getStep();
+        long steps = (long) stepCount(task);
+        int count = 1;
+        // Некорректные задания не делятся, чтобы ошибку сообщил Functions.integrate для всего задания
+        if (step > 0 && left < right && cost > pieceCost && pieceCost > 0) {
+            count = (int) Math.min(Math.ceil(cost / pieceCost), Math.max(1, steps / MIN_PIECE_STEPS));
+        }
+        Join join = new Join(task, count, consumer);
+        for (int p = 0; p < count; p++) {
+            // Границы частей лежат на узлах сетки left + k * step; последняя часть содержит неполный шаг
+            double from = p == 0 ? left : left + (steps * p / count) * step;
+            double to = p == count - 1 ? right : left + (steps * (p + 1) / count) * step;
+            pieces.add(new Piece(join, p, from, to, cost / count));
+        }
+    }
+
+    private static final class Piece {
+        private final Join join;
+        private final int index;
+        private final double leftBorder;
+        private final double rightBorder;
+        private final double cost;
+
+        Piece(Join join, int index, double leftBorder, double rightBorder, double cost) {
+            this.join = join;
+            this.index = index;
+            this.leftBorder = leftBorder;
+            this.rightBorder = rightBorder;
+            this.cost = cost;
+        }
+
+        void execute() {
+            IntegrationTask task = join.task;
+            try {
+                join.complete(index, Functions.integrate(task.getFunction(), leftBorder, rightBorder, task.getStep()));
+            } catch (IllegalArgumentException e) {
+                join.fail(e.getMessage());
+            } catch (RuntimeException e) {
+                // Непредвиденное исключение функции относится к заданию, а не к рабочему потоку
+                join.fail(e.toString());
+            }
+        }
+    }
+
+    // Передача результатов получателю по одному; первая ошибка получателя или рабочего потока
+    // прекращает передачу и пробрасывается из run
+    private static final class Delivery implements Consumer<IntegrationResult> {
+        private final Consumer<IntegrationResult> consumer;
+        private volatile Throwable failure;
+
+        Delivery(Consumer<IntegrationResult> consumer) {
+            this.consumer = consumer;
+        }
+
+        @Override
+        public synchronized void accept(IntegrationResult result) {
+            if (failure != null) {
+                return;
+            }
+            try {
+                consumer.accept(result);
+            } catch (RuntimeException e) {
+                failure = e;
+            }
+        }
+
+        synchronized void fail(Throwable e) {
+            if (failure == null) {
+                failure = e;
+            }
+        }
+
+        boolean isFailed() {
+            return failure != null;
+        }
+
+        void rethrow() {
+            if (failure instanceof RuntimeException) {
+                throw (RuntimeException) failure;
+            }
+            if (failure instanceof Error) {
+                throw (Error) failure;
+            }
+        }
+    }
+
+    // Сборка результата задания из частей; части суммируются по порядку, чтобы результат не зависел от потоков
+    private static final class Join {
+        private final IntegrationTask task;
+        private final double[] partialSums;
+        private final AtomicInteger remaining;
+        private final Consumer<IntegrationResult> consumer;
+        private volatile String error;
+
+        Join(IntegrationTask task, int count, Consumer<IntegrationResult> consumer) {
+            this.task = task;
+            this.partialSums = new double[count];
+            this.remaining = new AtomicInteger(count);
+            this.consumer = consumer;
+        }
+
+        void complete(int index, double value) {
+            partialSums[index] = value;
+            finishPiece();
+        }
+
+        void fail(String message) {
+            if (error == null) {
+                error = message;
+            }
+            finishPiece();
+        }
+
+        // Уменьшение счетчика публикует записи в partialSums для потока, завершающего задание
+        private void finishPiece() {
+            if (remaining.decrementAndGet() != 0) {
+                return;
+            }
+            IntegrationResult result;
+            if (error != null) {
+                result = IntegrationResult.failure(task.getId(), task, error);
+            } else {
+                double sum = 0;
+                for (double partial : partialSums) {
+                    sum += partial;
+                }
+                result = IntegrationResult.success(task, sum);
+            }
+            consumer.accept(result);
+        }
+    }
+}
@@ -0,0 +1,454 @@
+package threads;
+
+import functions.FunctionCodec;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+// Распределенное интегрирование: координатор раздает задания процессам DistributedWorker
+// по TCP и собирает результаты. Каждому исполнителю отправляется до window заданий вперед,
+// чтобы он не простаивал в ожидании следующего задания, поэтому производительность растет
+// с количеством исполнителей, пока координатор успевает создавать и кодировать задания.
+//
+// Задания исполнителя, отключившегося, нарушившего протокол или не ответившего за отведенное
+// время, возвращаются в начало очереди и достаются другим исполнителям; каждый результат
+// передается получателю один раз. Задание, на котором отказали MAX_ATTEMPTS исполнителей,
+// завершается с ошибкой, чтобы одно задание не вывело из строя всех исполнителей.
+// Исполнители могут подключаться в любой момент запуска и завершаются вместе с ним.
+//
+// Протокол: исполнитель отправляет MAGIC и VERSION. Координатор отправляет кадры
+// TASK (номер, границы, шаг, длина и функция в формате FunctionCodec) и в конце END,
+// исполнитель отвечает кадрами RESULT (номер, значение) или FAILED (номер, сообщение).
+public class DistributedCoordinator implements AutoCloseable {
+    static final int MAGIC = 0x494E5457; // "INTW"
+    static final int VERSION = 1;
+    static final int TASK = 1;
+    static final int END = 2;
+    static final int RESULT = 1;
+    static final int FAILED = 2;
+
+    // Как часто ожидающий подключений поток проверяет завершение запуска
+    private static final int ACCEPT_POLL_MILLIS = 100;
+    // Сколько подключившийся ждет отправки MAGIC и VERSION
+    private static final int HANDSHAKE_TIMEOUT_MILLIS = 5000;
+    private static final int DEFAULT_RESULT_TIMEOUT_MILLIS = 60000;
+    // Сколько исполнителей может отказать на одном задании
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final ServerSocket server;
+    private final int window;
+    private volatile int resultTimeoutMillis = DEFAULT_RESULT_TIMEOUT_MILLIS;
+
+    // port == 0 - свободный порт, см. getPort
+    public DistributedCoordinator(int port, int window) throws IOException {
+        if (window < 1) {
+            throw new IllegalArgumentException("Количество заданий в пути должно быть положительным: " + window);
+        }
+        this.server = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        this.window = window;
+    }
+
+    public DistributedCoordinator(int port) throws IOException {
+        this(port, 16);
+    }
+
+    public int getPort() {
+        return server.getLocalPort();
+    }
+
+    // Вызывается до run: наибольшее ожидание следующего результата исполнителя, у которого есть
+    // задания в пути; не ответивший исполнитель считается отказавшим. 0 - без ограничения
+    public void setResultTimeout(int millis) {
+        if (millis < 0) {
+            throw new IllegalArgumentException("Время ожидания не может быть отрицательным: " + millis);
+        }
+        this.resultTimeoutMillis = millis;
+    }
+
+    // Запускает count процессов-исполнителей на этой машине с тем же classpath;
+    // процессы завершаются сами в конце запуска
+    public List<Process> startLocalWorkers(int count) throws IOException {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        List<Process> processes = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            processes.add(new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                DistributedWorker.class.getName(), server.getInetAddress().getHostAddress(),
+                Integer.toString(getPort()))
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start());
+        }
+        return processes;
+    }
+
+    // Выполняет задания 0..taskCount-1 на подключенных исполнителях и возвращает управление
+    // после передачи всех результатов. Получатель вызывается не более чем из одного потока сразу.
+    // Пока нет ни одного исполнителя, задания ждут подключения
+    public Summary run(long taskCount, TaskFactory factory, Consumer<IntegrationResult> consumer)
+            throws InterruptedException {
+        if (taskCount < 0) {
+            throw new IllegalArgumentException("Количество заданий не может быть отрицательным: " + taskCount);
+        }
+        Work work = new Work(taskCount, consumer);
+        List<Thread> handlers = new ArrayList<>();
+        List<Socket> sockets = new ArrayList<>();
+        // Подключения, еще не приславшие MAGIC и VERSION
+        Set<Socket> handshaking = new HashSet<>();
+        Thread acceptor = new Thread(() -> accept(work, factory, handlers, sockets, handshaking),
+            "coordinator-acceptor");
+        acceptor.start();
+        try {
+            try {
+                work.awaitDone();
+            } finally {
+                boolean completed = work.isCompleted();
+                work.abort();
+                acceptor.join();
+                // При досрочном завершении исполнители могут считать задания: соединения разрываются.
+                // Подключения без рукопожатия заданий уже не получат и закрываются в любом случае
+                closeSockets(handlers, completed ? handshaking : sockets);
+            }
+            // После завершения обработчики отправляют END и закрывают соединения сами
+            List<Thread> started;
+            synchronized (handlers) {
+                started = new ArrayList<>(handlers);
+            }
+            for (Thread handler : started) {
+                handler.join();
+            }
+        } finally {
+            // Соединения закрываются при любом выходе, в том числе при прерывании ожидания
+            closeSockets(handlers, sockets);
+        }
+        work.rethrow();
+        return work.summary();
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.close();
+    }
+
+    private static void closeSockets(List<Thread> handlers, Collection<Socket> sockets) {
+        synchronized (handlers) {
+            for (Socket socket : sockets) {
+                try {
+                    socket.close();
+                } catch (IOException e) {
+                    // Соединение уже закрыто
+                }
+            }
+        }
+    }
+
+    private void accept(Work work, TaskFactory factory, List<Thread> handlers, List<Socket> sockets,
+                        Set<Socket> handshaking) {
+        try {
+            server.setSoTimeout(ACCEPT_POLL_MILLIS);
+            while (!work.isDone()) {
+                Socket socket;
+                try {
+                    socket = server.accept();
+                } catch (SocketTimeoutException e) {
+                    continue;
+                }
+                Thread handler = new Thread(() -> serve(socket, work, factory, handlers, handshaking),
+                    "coordinator-worker-" + socket.getPort());
+                synchronized (handlers) {
+                    handlers.add(handler);
+                    sockets.add(socket);
+                    handshaking.add(socket);
+                }
+                handler.start();
+            }
+        } catch (IOException e) {
+            // Сокет закрыт: новые исполнители не принимаются, подключенные продолжают работу
+        }
+    }
+
+    // Обслуживает одного исполнителя до конца запуска или до его отказа
+    private void serve(Socket socket, Work work, TaskFactory factory, List<Thread> handlers,
+                       Set<Socket> handshaking) {
+        Map<Long, IntegrationTask> inFlight = new LinkedHashMap<>();
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+        try (socket) {
+            socket.setTcpNoDelay(true);
+            socket.setSoTimeout(HANDSHAKE_TIMEOUT_MILLIS);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            if (in.readInt() != MAGIC || in.readUnsignedByte() != VERSION) {
+                throw new StreamCorruptedException("Подключение не является исполнителем");
+            }
+            synchronized (handlers) {
+                handshaking.remove(socket);
+            }
+            // Результаты читаются только при заданиях в пути, поэтому ожидание ограничивает время ответа
+            socket.setSoTimeout(resultTimeoutMillis);
+            work.workerConnected();
+            while (true) {
+                while (inFlight.size() < window) {
+                    Long id = inFlight.isEmpty() ? work.take() : work.poll();
+                    if (id == null) {
+                        break;
+                    }
+                    IntegrationTask task;
+                    try {
+                        task = factory.createTask(id);
+                        encoded.reset();
+                        FunctionCodec.outputFunction(task.getFunction(), encoded);
+                    } catch (IOException | RuntimeException e) {
+                        // Задание не создано или его функцию нельзя закодировать (NotSerializableException):
+                        // это ошибка задания, а не исполнителя
+                        String message = e instanceof IllegalArgumentException ? e.getMessage() : e.toString();
+                        work.complete(IntegrationResult.failure(id, null, message));
+                        continue;
+                    }
+                    out.writeByte(TASK);
+                    out.writeLong(id);
+                    out.writeDouble(task.getLeftBorder());
+                    out.writeDouble(task.getRightBorder());
+                    out.writeDouble(task.getStep());
+                    out.writeInt(encoded.size());
+                    encoded.writeTo(out);
+                    inFlight.put(id, task);
+                }
+                if (inFlight.isEmpty()) {
+                    // Заданий больше нет
+                    out.writeByte(END);
+                    out.flush();
+                    return;
+                }
+                out.flush();
+
+                int type = in.readUnsignedByte();
+                long id = in.readLong();
+                IntegrationTask task = inFlight.remove(id);
+                if (task == null) {
+                    throw new StreamCorruptedException("Результат задания, не отправленного исполнителю: " + id);
+                }
+                if (type == RESULT) {
+                    work.complete(IntegrationResult.success(task, in.readDouble()));
+                } else if (type == FAILED) {
+                    work.complete(IntegrationResult.failure(id, task, in.readUTF()));
+                } else {
+                    inFlight.put(id, task);
+                    throw new StreamCorruptedException("Неизвестный тип кадра: " + type);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // В том числе SocketTimeoutException: не ответивший исполнитель считается отказавшим.
+            // Непредвиденное исключение обработчика тоже возвращает задания в очередь, иначе они потерялись бы
+            work.workerFailed(inFlight);
+        } catch (InterruptedException e) {
+            // Запуск прерван
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Очередь номеров заданий и передача результатов. Новые номера выдаются по порядку,
+    // задания отказавших исполнителей - в первую очередь
+    private static final class Work {
+        private final long taskCount;
+        private final Consumer<IntegrationResult> consumer;
+        private final Deque<Long> requeued = new ArrayDeque<>();
+        // Количество исполнителей, отказавших на задании
+        private final Map<Long, Integer> attempts = new HashMap<>();
+        private final long startNanos = System.nanoTime();
+        private long nextId;
+        private long done;
+        private long failed;
+        private double sum;
+        private long requeuedCount;
+        private int workers;
+        private int failedWorkers;
+        private boolean aborted;
+        private RuntimeException failure;
+
+        Work(long taskCount, Consumer<IntegrationResult> consumer) {
+            this.taskCount = taskCount;
+            this.consumer = consumer;
+        }
+
+        synchronized Long poll() {
+            if (aborted) {
+                return null;
+            }
+            if (!requeued.isEmpty()) {
+                return requeued.pollFirst();
+            }
+            return nextId < taskCount ? nextId++ : null;
+        }
+
+        // null - заданий больше не будет
+        synchronized Long take() throws InterruptedException {
+            while (true) {
+                Long id = poll();
+                if (id != null || isDone()) {
+                    return id;
+                }
+                wait();
+            }
+        }
+
+        synchronized void complete(IntegrationResult result) {
+            if (aborted) {
+                return;
+            }
+            try {
+                consumer.accept(result);
+            } catch (RuntimeException e) {
+                // Ошибка получателя останавливает запуск и пробрасывается из run
+                failure = e;
+                abort();
+                return;
+            }
+            if (result.isSuccessful()) {
+                sum += result.getValue();
+            } else {
+                failed++;
+            }
+            if (++done == taskCount) {
+                notifyAll();
+            }
+        }
+
+        synchronized void workerConnected() {
+            workers++;
+        }
+
+        // inFlight - задания исполнителя в порядке отправки
+        synchronized void workerFailed(Map<Long, IntegrationTask> inFlight) {
+            failedWorkers++;
+            List<Long> ids = new ArrayList<>(inFlight.keySet());
+            // Исполнитель выполняет задания по порядку, поэтому отказ вызвало, скорее всего, первое
+            // задание без ответа; отказ засчитывается только ему
+            if (!ids.isEmpty()) {
+                Long suspect = ids.get(0);
+                int failures = attempts.merge(suspect, 1, Integer::sum);
+                if (failures >= MAX_ATTEMPTS) {
+                    ids.remove(0);
+                    attempts.remove(suspect);
+                    complete(IntegrationResult.failure(suspect, inFlight.get(suspect),
+                        "На задании отказали исполнители: " + failures));
+                }
+            }
+            for (int i = ids.size() - 1; i >= 0; i--) {
+                requeued.addFirst(ids.get(i));
+            }
+            requeuedCount += ids.size();
+            notifyAll();
+        }
+
+        synchronized boolean isDone() {
+            return aborted || done == taskCount;
+        }
+
+        synchronized boolean isCompleted() {
+            return done == taskCount;
+        }
+
+        synchronized void awaitDone() throws InterruptedException {
+            while (!isDone()) {
+                wait();
+            }
+        }
+
+        synchronized void abort() {
+            aborted = true;
+            notifyAll();
+        }
+
+        synchronized void rethrow() {
+            if (failure != null) {
+                throw failure;
+            }
+        }
+
+        synchronized Summary summary() {
+            return new Summary(done - failed, failed, sum, requeuedCount, workers, failedWorkers,
+                System.nanoTime() - startNanos);
+        }
+    }
+
+    // Сводка запуска: сумма - по успешно выполненным заданиям
+    public static final class Summary {
+        private final long completed;
+        private final long failed;
+        private final double sum;
+        private final long requeued;
+        private final int workers;
+        private final int failedWorkers;
+        private final long elapsedNanos;
+
+        Summary(long completed, long failed, double sum, long requeued, int workers, int failedWorkers,
+                long elapsedNanos) {
+            this.completed = completed;
+            this.failed = failed;
+            this.sum = sum;
+            this.requeued = requeued;
+            this.workers = workers;
+            this.failedWorkers = failedWorkers;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public long getCompleted() {
+            return completed;
+        }
+
+        public long getFailed() {
+            return failed;
+        }
+
+        public double getSum() {
+            return sum;
+        }
+
+        // Задания, повторно отправленные после отказа исполнителя
+        public long getRequeued() {
+            return requeued;
+        }
+
+        public int getWorkers() {
+            return workers;
+        }
+
+        public int getFailedWorkers() {
+            return failedWorkers;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        public double getThroughput() {
+            return elapsedNanos == 0 ? Double.NaN : (completed + failed) * 1e9 / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("выполнено=%d с ошибкой=%d сумма=%.9f повторно=%d исполнителей=%d отказало=%d "
+                    + "за %.3f мс (%.1f заданий/с)",
+                completed, failed, sum, requeued, workers, failedWorkers, elapsedNanos / 1e6, getThroughput());
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package threads;
+
+import functions.Function;
+import functions.FunctionCodec;
+import functions.Functions;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.net.Socket;
+
+// Исполнитель заданий DistributedCoordinator: подключается к координатору, интегрирует
+// полученные задания по одному и отправляет результат каждого сразу: координатор пополняет
+// окно заданий по мере ответов, и у исполнителя всегда есть следующие задания.
+// Работает до кадра END или разрыва соединения.
+//
+// Запуск отдельным процессом: java threads.DistributedWorker <хост> <порт>
+public class DistributedWorker {
+    private final String host;
+    private final int port;
+
+    public DistributedWorker(String host, int port) {
+        if (port < 1 || port > 65535) {
+            throw new IllegalArgumentException("Неверный номер порта: " + port);
+        }
+        this.host = host;
+        this.port = port;
+    }
+
+    // Возвращает количество обработанных заданий
+    public long run() throws IOException {
+        long processed = 0;
+        try (Socket socket = new Socket(host, port)) {
+            socket.setTcpNoDelay(true);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            out.writeInt(DistributedCoordinator.MAGIC);
+            out.writeByte(DistributedCoordinator.VERSION);
+            out.flush();
+
+            while (true) {
+                int type = in.readUnsignedByte();
+                if (type == DistributedCoordinator.END) {
+                    return processed;
+                }
+                if (type != DistributedCoordinator.TASK) {
+                    throw new StreamCorruptedException("Неизвестный тип кадра: " + type);
+                }
+                long id = in.readLong();
+                double left = in.readDouble();
+                double right = in.readDouble();
+                double step = in.readDouble();
+                byte[] encoded = new byte[in.readInt()];
+                in.readFully(encoded);
+
+                double result = 0;
+                String error = null;
+                try {
+                    Function function = FunctionCodec.inputFunction(new ByteArrayInputStream(encoded));
+                    result = Functions.integrate(function, left, right, step);
+                } catch (IllegalArgumentException | IOException e) {
+                    // Ошибка декодирования или интегрирования относится к заданию, а не к соединению
+                    error = String.valueOf(e.getMessage());
+                }
+                if (error == null) {
+                    out.writeByte(DistributedCoordinator.RESULT);
+                    out.writeLong(id);
+                    out.writeDouble(result);
+                } else {
+                    out.writeByte(DistributedCoordinator.FAILED);
+                    out.writeLong(id);
+                    out.writeUTF(error);
+                }
+                processed++;
+                out.flush();
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Использование: java threads.DistributedWorker <хост> <порт>");
+            System.exit(2);
+        }
+        long processed = new DistributedWorker(args[0], Integer.parseInt(args[1])).run();
+        System.out.println("Обработано заданий: " + processed);
+    }
+}
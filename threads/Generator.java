@@ -1,6 +1,7 @@
 package threads;
 import functions.*;
 import functions.basic.*;
+import java.io.IOException;
 import java.util.Random;
 import java.util.concurrent.Semaphore;
 
@@ -8,68 +9,237 @@ public class Generator extends Thread {
     private final Task task;
     private final Semaphore dataReady;
     private final Semaphore dataProcessed;
-    private final Random random = new Random();
+    private final Random random;
+    private final TaskFactory factory;
+    private final ResultSink sink;
+    private volatile PipelineMetrics metrics;
+    private volatile boolean stopRequested;
+    private volatile int generatedCount;
+    private volatile int failedCount;
+    private volatile int skippedCount;
+    private volatile CheckpointJournal journal;
 
     public Generator(Task task, Semaphore dataReady, Semaphore dataProcessed) {
+        this(task, dataReady, dataProcessed, AsyncResultSink.console());
+    }
+
+    public Generator(Task task, Semaphore dataReady, Semaphore dataProcessed, ResultSink sink) {
+        this(task, dataReady, dataProcessed, sink, new Random(), null);
+    }
+
+    // При одинаковом seed создается одна и та же последовательность заданий
+    public Generator(Task task, Semaphore dataReady, Semaphore dataProcessed, ResultSink sink, long seed) {
+        this(task, dataReady, dataProcessed, sink, new Random(seed), null);
+    }
+
+    // Задание с номером i - factory.createTask(i), например из Workload или TaskFile
+    public Generator(Task task, Semaphore dataReady, Semaphore dataProcessed, ResultSink sink,
+                     TaskFactory factory) {
+        this(task, dataReady, dataProcessed, sink, null, factory);
+        if (factory == null) {
+            throw new IllegalArgumentException("Фабрика заданий не может быть null");
+        }
+    }
+
+    private Generator(Task task, Semaphore dataReady, Semaphore dataProcessed, ResultSink sink, Random random,
+                      TaskFactory factory) {
         this.task = task;
         this.dataReady = dataReady;
         this.dataProcessed = dataProcessed;
+        this.sink = sink;
+        this.random = random;
+        this.factory = factory;
+    }
+
+    // Вызывается до start; null - без метрик
+    public void setMetrics(PipelineMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    // Прекращает создание заданий: уже переданное задание будет обработано,
+    // после чего интегратор получит признак конца потока
+    public void requestStop() {
+        stopRequested = true;
+    }
+
+    // Вызывается до start: задания, завершенные по журналу, создаются для сохранения
+    // последовательности, но интегратору не передаются. null - без журнала
+    public void setJournal(CheckpointJournal journal) {
+        this.journal = journal;
+    }
+
+    public int getGeneratedCount() {
+        return generatedCount;
+    }
+
+    // Задания, которые не удалось создать
+    public int getFailedCount() {
+        return failedCount;
+    }
+
+    // Задания, пропущенные как завершенные по журналу
+    public int getSkippedCount() {
+        return skippedCount;
     }
 
     @Override
     public void run() {
-        System.out.println("Generator: начало работы");
+        sink.message("Generator: начало работы");
+        PipelineMetrics metrics = this.metrics;
+        CheckpointJournal journal = this.journal;
+        
+        try {
+            generate(metrics, journal);
+        } finally {
+            // Признак конца потока передается и после непредвиденной ошибки: иначе интегратор
+            // ждал бы следующего задания вечно. Прерванный генератор его не передает
+            if (!Thread.currentThread().isInterrupted()) {
+                sendEndOfStream();
+            }
+        }
+        if (Thread.currentThread().isInterrupted()) {
+            return;
+        }
         
+        sink.message("Generator: завершение работы");
+        sink.flush();
+    }
+
+    private void generate(PipelineMetrics metrics, CheckpointJournal journal) {
         for (int i = 0; i < task.getTaskCount(); i++) {
+            boolean skip = journal != null && journal.isCompleted(i);
+            if (skip && stopRequested) {
+                break;
+            }
+            boolean acquired = false;
+            IntegrationTask next = null;
             try {
-                dataProcessed.acquire();
+                if (skip) {
+                    // Задание уже выполнено: значения берутся из random только для сохранения
+                    // последовательности и в слот не записываются - интегратор может еще читать его
+                    if (factory == null) {
+                        nextTask(i);
+                    }
+                    skippedCount++;
+                    continue;
+                }
+                next = factory == null ? nextTask(i) : factory.createTask(i);
+
+                TaskHandoffEvent handoff = new TaskHandoffEvent();
+                handoff.begin();
+                if (metrics == null || !dataProcessed.tryAcquire()) {
+                    long start = metrics == null ? 0 : System.nanoTime();
+                    dataProcessed.acquire();
+                    if (metrics != null) {
+                        metrics.generatorWaited(System.nanoTime() - start);
+                    }
+                }
+                acquired = true;
+                handoff.finish("Generator", i);
                 
                 if (Thread.currentThread().isInterrupted()) {
                     throw new InterruptedException();
                 }
-                
-                Function function;
-                int funcType = random.nextInt(3);
-                switch (funcType) {
-                    case 0:
-                        function = new Exp();
-                        break;
-                    case 1:
-                        function = new Sin();
-                        break;
-                    case 2:
-                        double base = 1 + random.nextDouble() * 9;
-                        function = new Log(base);
-                        break;
-                    default:
-                        function = new Exp();
+                if (stopRequested) {
+                    dataProcessed.release();
+                    break;
                 }
                 
-                double left = random.nextDouble() * 5;
-                double right = left + 1 + random.nextDouble() * 4;
-                double step = 0.01 + random.nextDouble() * 0.1;
-                
-                task.setFunction(function);
-                task.setLeftBorder(left);
-                task.setRightBorder(right);
-                task.setStep(step);
+                // Слот принадлежит генератору только после dataProcessed.acquire
+                task.setTaskId(i);
+                task.setFunction(next.getFunction());
+                task.setLeftBorder(next.getLeftBorder());
+                task.setRightBorder(next.getRightBorder());
+                task.setStep(next.getStep());
                 
-                System.out.printf("(Generator %d) Создано: %s на [%.6f, %.6f], шаг=%.6f\n",
-                    i, function.getClass().getSimpleName(), left, right, step);
+                sink.taskGenerated("Generator", i, task.getFunction(), task.getLeftBorder(), task.getRightBorder(),
+                    task.getStep());
+                if (metrics != null) {
+                    metrics.taskGenerated();
+                }
+                generatedCount++;
                 
                 dataReady.release();
                 
                 
             } catch (InterruptedException e) {
-                System.out.println("Generator прерван");
+                sink.message("Generator прерван");
+                sink.flush();
                 Thread.currentThread().interrupt();
                 return;
-            } catch (IllegalArgumentException e) {
-                System.out.printf("(Generator %d) ОШИБКА генерации: %s\n", i, e.getMessage());
-                dataReady.release(); // Все равно освобождаем семафор
+            } catch (RuntimeException e) {
+                if (skip) {
+                    skippedCount++;
+                    continue;
+                }
+                if (acquired) {
+                    // Слот остался свободным: в нем нет нового задания для интегратора.
+                    // Освобождается до вывода ошибки, чтобы признак конца потока смог занять слот
+                    dataProcessed.release();
+                }
+                if (metrics != null) {
+                    metrics.taskFailed();
+                }
+                failedCount++;
+                // В журнал записывается только ошибка создания задания: после ошибки вывода
+                // задание при повторном запуске создается снова
+                if (next == null) {
+                    recordFailure(journal, i);
+                }
+                String message = e instanceof IllegalArgumentException ? e.getMessage() : e.toString();
+                sink.taskFailed("Generator", i, message);
             }
         }
+    }
+
+    // Признак конца потока передается через слот, как обычное задание
+    private void sendEndOfStream() {
+        try {
+            dataProcessed.acquire();
+        } catch (InterruptedException e) {
+            sink.message("Generator прерван");
+            sink.flush();
+            Thread.currentThread().interrupt();
+            return;
+        }
+        task.markEndOfStream();
+        dataReady.release();
+    }
+
+    // Следующее задание последовательности random; слот не изменяется
+    private IntegrationTask nextTask(int index) {
+        Function function;
+        int funcType = random.nextInt(3);
+        switch (funcType) {
+            case 0:
+                function = InternedFunctions.exp();
+                break;
+            case 1:
+                function = InternedFunctions.sin();
+                break;
+            case 2:
+                double base = 1 + random.nextDouble() * 9;
+                function = InternedFunctions.log(base);
+                break;
+            default:
+                function = InternedFunctions.exp();
+        }
+        
+        double left = random.nextDouble() * 5;
+        double right = left + 1 + random.nextDouble() * 4;
+        double step = 0.01 + random.nextDouble() * 0.1;
         
-        System.out.println("Generator: завершение работы");
+        return new IntegrationTask(index, function, left, right, step);
+    }
+
+    private void recordFailure(CheckpointJournal journal, int index) {
+        if (journal == null || journal.isCompleted(index)) {
+            return;
+        }
+        try {
+            journal.recordFailure(index);
+        } catch (IOException e) {
+            sink.message("Generator: не удалось записать журнал: " + e.getMessage());
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,350 @@
+package threads;
+
+import functions.InternedFunctions;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+// Конвейер из нескольких генераторов и нескольких интеграторов вместо одного слота Task:
+// генераторы кладут неизменяемые задания в ограниченную очередь, интеграторы забирают их
+// и передают результаты получателю. Заданий в обработке одновременно столько, сколько
+// интеграторов, поэтому производительность растет с количеством ядер.
+//
+// В упорядоченном режиме результаты передаются получателю строго по возрастанию номера
+// задания, иначе - по мере готовности. Получатель вызывается из потоков конвейера,
+// но никогда одновременно из двух потоков.
+//
+// Потоки генераторов и интеграторов создаются фабрикой, например VirtualThreads.newThreadFactory.
+// runPerTask вместо этого запускает каждое задание, включая его создание, в отдельном потоке
+// структурированной области TaskScope (по умолчанию виртуальном).
+public class IntegrationPipeline {
+    // Признак конца потока заданий, по одному на каждый интегратор
+    private static final IntegrationTask END = new IntegrationTask(-1, InternedFunctions.exp(), 0, 0, 0);
+    // Период проверки ошибки при ожидании места в очереди для END
+    private static final long END_OFFER_MILLIS = 10;
+
+    private final int generatorCount;
+    private final int integratorCount;
+    private final int queueCapacity;
+    private final boolean ordered;
+    private final ThreadFactory threadFactory;
+    private volatile PipelineMetrics metrics;
+
+    public IntegrationPipeline(int generatorCount, int integratorCount, int queueCapacity, boolean ordered) {
+        this(generatorCount, integratorCount, queueCapacity, ordered, null);
+    }
+
+    // threadFactory == null - платформенные потоки с именами pipeline-generator-i и pipeline-integrator-i
+    public IntegrationPipeline(int generatorCount, int integratorCount, int queueCapacity, boolean ordered,
+                               ThreadFactory threadFactory) {
+        if (generatorCount < 1 || integratorCount < 1) {
+            throw new IllegalArgumentException("Количество генераторов и интеграторов должно быть положительным");
+        }
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("Емкость очереди должна быть положительной: " + queueCapacity);
+        }
+        this.generatorCount = generatorCount;
+        this.integratorCount = integratorCount;
+        this.queueCapacity = queueCapacity;
+        this.ordered = ordered;
+        this.threadFactory = threadFactory;
+    }
+
+    // Интеграторов по числу ядер, генерация дешевле интегрирования
+    public IntegrationPipeline(boolean ordered) {
+        this(1, Runtime.getRuntime().availableProcessors(), 1024, ordered);
+    }
+
+    // Метрики следующих запусков; null - без метрик
+    public void setMetrics(PipelineMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    // Выполняет задания с номерами 0..taskCount-1 и возвращает управление после передачи всех результатов
+    public void run(long taskCount, TaskFactory factory, Consumer<IntegrationResult> consumer)
+            throws InterruptedException {
+        if (taskCount < 0) {
+            throw new IllegalArgumentException("Количество заданий не может быть отрицательным: " + taskCount);
+        }
+        BlockingQueue<IntegrationTask> queue = new ArrayBlockingQueue<>(queueCapacity);
+        Collector collector = new Collector(consumer, ordered);
+        AtomicLong nextId = new AtomicLong();
+        PipelineMetrics metrics = this.metrics;
+        if (metrics != null) {
+            metrics.setQueueDepth(queue::size);
+        }
+
+        // Error в потоке конвейера останавливает все потоки и пробрасывается из run
+        List<Thread> all = new ArrayList<>();
+        Runnable abort = () -> {
+            for (Thread thread : all) {
+                thread.interrupt();
+            }
+        };
+        List<Thread> generators = new ArrayList<>();
+        for (int g = 0; g < generatorCount; g++) {
+            generators.add(newThread(() -> generate(taskCount, nextId, factory, queue, collector, metrics, abort),
+                "pipeline-generator-" + g));
+        }
+        List<Thread> integrators = new ArrayList<>();
+        for (int i = 0; i < integratorCount; i++) {
+            integrators.add(newThread(() -> integrate(queue, collector, metrics, abort), "pipeline-integrator-" + i));
+        }
+
+        all.addAll(generators);
+        all.addAll(integrators);
+        for (Thread thread : all) {
+            thread.start();
+        }
+        try {
+            for (Thread generator : generators) {
+                generator.join();
+            }
+            // Без живых интеграторов очередь может не освободиться, поэтому ожидание места
+            // прекращается при ошибке
+            for (int i = 0; i < integratorCount && !collector.isFailed(); i++) {
+                while (!queue.offer(END, END_OFFER_MILLIS, TimeUnit.MILLISECONDS) && !collector.isFailed()) {
+                    // Интеграторы еще обрабатывают задания
+                }
+            }
+            if (collector.isFailed()) {
+                abort.run();
+            }
+            for (Thread integrator : integrators) {
+                integrator.join();
+            }
+        } catch (InterruptedException e) {
+            for (Thread thread : all) {
+                thread.interrupt();
+            }
+            throw e;
+        }
+        collector.rethrow();
+    }
+
+    // Каждое задание - отдельная подзадача TaskScope; одновременно выполняется не более queueCapacity заданий.
+    // Ошибка получателя или непредвиденное исключение отменяет незавершенные задания
+    public void runPerTask(long taskCount, TaskFactory factory, Consumer<IntegrationResult> consumer)
+            throws InterruptedException {
+        runPerTask(taskCount, factory, consumer, new TaskScope());
+    }
+
+    public void runPerTask(long taskCount, TaskFactory factory, Consumer<IntegrationResult> consumer,
+                           TaskScope scope) throws InterruptedException {
+        if (taskCount < 0) {
+            throw new IllegalArgumentException("Количество заданий не может быть отрицательным: " + taskCount);
+        }
+        Collector collector = new Collector(consumer, ordered);
+        Semaphore inFlight = new Semaphore(queueCapacity);
+        PipelineMetrics metrics = this.metrics;
+        if (metrics != null) {
+            metrics.setQueueDepth(() -> queueCapacity - inFlight.availablePermits());
+        }
+        try (scope) {
+            for (long id = 0; id < taskCount && !scope.isShutdown(); id++) {
+                long taskId = id;
+                inFlight.acquire();
+                scope.fork(() -> {
+                    try {
+                        IntegrationTask task;
+                        try {
+                            task = factory.createTask(taskId);
+                        } catch (RuntimeException e) {
+                            if (metrics != null) {
+                                metrics.taskFailed();
+                            }
+                            collector.accept(IntegrationResult.failure(taskId, null, describe(e)));
+                            return null;
+                        }
+                        if (metrics != null) {
+                            metrics.taskGenerated();
+                        }
+                        if (!collector.accept(execute(task, metrics))) {
+                            throw new IllegalStateException("Получатель результатов завершился с ошибкой");
+                        }
+                        return null;
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+            scope.join();
+        } catch (ExecutionException e) {
+            collector.rethrow();
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+        collector.rethrow();
+    }
+
+    private Thread newThread(Runnable runnable, String name) {
+        if (threadFactory == null) {
+            return new Thread(runnable, name);
+        }
+        return threadFactory.newThread(runnable);
+    }
+
+    // Исключение задания, в том числе непредвиденное, становится результатом с ошибкой:
+    // иначе оно завершило бы поток интегратора
+    private static IntegrationResult execute(IntegrationTask task, PipelineMetrics metrics) {
+        if (metrics == null) {
+            try {
+                return IntegrationResult.success(task, task.integrate());
+            } catch (RuntimeException e) {
+                return IntegrationResult.failure(task.getId(), task, describe(e));
+            }
+        }
+        long start = System.nanoTime();
+        try {
+            double value = task.integrate();
+            metrics.taskIntegrated(System.nanoTime() - start);
+            return IntegrationResult.success(task, value);
+        } catch (RuntimeException e) {
+            metrics.taskFailed();
+            return IntegrationResult.failure(task.getId(), task, describe(e));
+        }
+    }
+
+    // Для ожидаемых ошибок заданий - сообщение, для остальных - еще и тип исключения
+    private static String describe(RuntimeException e) {
+        return e instanceof IllegalArgumentException ? e.getMessage() : e.toString();
+    }
+
+    private static void generate(long taskCount, AtomicLong nextId, TaskFactory factory,
+                                 BlockingQueue<IntegrationTask> queue, Collector collector,
+                                 PipelineMetrics metrics, Runnable abort) {
+        try {
+            long id;
+            while ((id = nextId.getAndIncrement()) < taskCount) {
+                IntegrationTask task;
+                try {
+                    task = factory.createTask(id);
+                } catch (RuntimeException e) {
+                    if (metrics != null) {
+                        metrics.taskFailed();
+                    }
+                    collector.accept(IntegrationResult.failure(id, null, describe(e)));
+                    continue;
+                }
+                if (metrics == null) {
+                    queue.put(task);
+                    continue;
+                }
+                metrics.taskGenerated();
+                if (!queue.offer(task)) {
+                    long start = System.nanoTime();
+                    queue.put(task);
+                    metrics.generatorWaited(System.nanoTime() - start);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Error e) {
+            collector.fail(e);
+            abort.run();
+        }
+    }
+
+    private static void integrate(BlockingQueue<IntegrationTask> queue, Collector collector,
+                                  PipelineMetrics metrics, Runnable abort) {
+        try {
+            while (true) {
+                IntegrationTask task = metrics == null ? null : queue.poll();
+                if (task == null) {
+                    long start = metrics == null ? 0 : System.nanoTime();
+                    task = queue.take();
+                    if (metrics != null) {
+                        metrics.integratorWaited(System.nanoTime() - start);
+                    }
+                }
+                if (task == END) {
+                    return;
+                }
+                collector.accept(execute(task, metrics));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Error e) {
+            collector.fail(e);
+            abort.run();
+        }
+    }
+
+    // Передача результатов получателю; в упорядоченном режиме результаты,
+    // пришедшие раньше своей очереди, ждут в таблице
+    private static final class Collector {
+        private final Consumer<IntegrationResult> consumer;
+        private final boolean ordered;
+        private final Map<Long, IntegrationResult> pending = new HashMap<>();
+        private long nextId;
+        private Throwable failure;
+
+        Collector(Consumer<IntegrationResult> consumer, boolean ordered) {
+            this.consumer = consumer;
+            this.ordered = ordered;
+        }
+
+        // false, если получатель уже завершился с ошибкой
+        synchronized boolean accept(IntegrationResult result) {
+            if (failure != null) {
+                return false;
+            }
+            try {
+                if (!ordered) {
+                    consumer.accept(result);
+                    return true;
+                }
+                if (result.getTaskId() != nextId) {
+                    pending.put(result.getTaskId(), result);
+                    return true;
+                }
+                consumer.accept(result);
+                nextId++;
+                while ((result = pending.remove(nextId)) != null) {
+                    consumer.accept(result);
+                    nextId++;
+                }
+                return true;
+            } catch (RuntimeException e) {
+                // Ошибка получателя останавливает передачу и пробрасывается из run
+                failure = e;
+                return false;
+            }
+        }
+
+        // Ошибка потока конвейера; передача результатов прекращается
+        synchronized void fail(Throwable e) {
+            if (failure == null) {
+                failure = e;
+            }
+        }
+
+        synchronized boolean isFailed() {
+            return failure != null;
+        }
+
+        synchronized void rethrow() {
+            if (failure instanceof RuntimeException) {
+                throw (RuntimeException) failure;
+            }
+            if (failure instanceof Error) {
+                throw (Error) failure;
+            }
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package threads;
+
+// Результат задания: значение интеграла либо сообщение об ошибке
+public final class IntegrationResult {
+    private final long taskId;
+    private final IntegrationTask task;
+    private final double value;
+    private final String error;
+
+    private IntegrationResult(long taskId, IntegrationTask task, double value, String error) {
+        this.taskId = taskId;
+        this.task = task;
+        this.value = value;
+        this.error = error;
+    }
+
+    public static IntegrationResult success(IntegrationTask task, double value) {
+        return new IntegrationResult(task.getId(), task, value, null);
+    }
+
+    // task может быть null, если ошибка произошла при создании задания
+    public static IntegrationResult failure(long taskId, IntegrationTask task, String error) {
+        return new IntegrationResult(taskId, task, Double.NaN, error);
+    }
+
+    public long getTaskId() {
+        return taskId;
+    }
+
+    public IntegrationTask getTask() {
+        return task;
+    }
+
+    public double getValue() {
+        return value;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public boolean isSuccessful() {
+        return error == null;
+    }
+
+    @Override
+    public String toString() {
+        if (!isSuccessful()) {
+            return String.format("(%d) ОШИБКА: %s", taskId, error);
+        }
+        return String.format("(%d) %s result = %.6f", taskId, task, value);
+    }
+}
@@ -0,0 +1,152 @@
+package threads;
+
+import functions.Function;
+import functions.Functions;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Асинхронное интегрирование для вызывающих потоков, которые не должны блокироваться:
+// submit сразу возвращает CompletableFuture, а вычисление выполняется на исполнителе.
+//
+// Одновременно принимается не более maxPending запросов; сверх этого submit возвращает
+// future, завершенный RejectedExecutionException. По истечении тайм-аута future завершается
+// TimeoutException. Отмена future (cancel) или тайм-аут останавливает цикл интегрирования
+// на ближайшей проверке, а не дожидается его окончания; место в очереди освобождается,
+// когда вычисление действительно прекратилось. close отменяет все незавершенные запросы.
+public class IntegrationService implements AutoCloseable {
+    private final Executor executor;
+    private final ExecutorService ownedExecutor;
+    private final int maxPending;
+    private final Semaphore admission;
+    private final long defaultTimeoutNanos;
+    // Принятые и еще не завершенные запросы; изменяется под блокировкой вместе с closed
+    private final Set<CompletableFuture<Double>> pending = ConcurrentHashMap.newKeySet();
+    private boolean closed;
+
+    // executor не закрывается вместе с сервисом; defaultTimeout <= 0 - без тайм-аута
+    public IntegrationService(Executor executor, int maxPending, long defaultTimeout, TimeUnit unit) {
+        this(executor, null, maxPending, defaultTimeout, unit);
+    }
+
+    // Собственный пул потоков по числу ядер, без тайм-аута
+    public IntegrationService(int maxPending) {
+        this(null, newDefaultExecutor(), maxPending, 0, TimeUnit.NANOSECONDS);
+    }
+
+    private IntegrationService(Executor executor, ExecutorService ownedExecutor, int maxPending,
+                               long defaultTimeout, TimeUnit unit) {
+        if (maxPending < 1) {
+            throw new IllegalArgumentException("Количество запросов должно быть положительным: " + maxPending);
+        }
+        this.executor = ownedExecutor != null ? ownedExecutor : executor;
+        if (this.executor == null) {
+            throw new IllegalArgumentException("Исполнитель не может быть null");
+        }
+        this.ownedExecutor = ownedExecutor;
+        this.maxPending = maxPending;
+        this.admission = new Semaphore(maxPending);
+        this.defaultTimeoutNanos = unit.toNanos(defaultTimeout);
+    }
+
+    public CompletableFuture<Double> submit(Function function, double leftX, double rightX, double step) {
+        return submit(function, leftX, rightX, step, defaultTimeoutNanos, TimeUnit.NANOSECONDS);
+    }
+
+    // timeout <= 0 - без тайм-аута
+    public CompletableFuture<Double> submit(Function function, double leftX, double rightX, double step,
+                                            long timeout, TimeUnit unit) {
+        CompletableFuture<Double> future = new CompletableFuture<>();
+        if (function == null) {
+            future.completeExceptionally(new IllegalArgumentException("Функция не может быть null"));
+            return future;
+        }
+        synchronized (pending) {
+            if (closed) {
+                future.completeExceptionally(new RejectedExecutionException("Сервис закрыт"));
+                return future;
+            }
+            if (!admission.tryAcquire()) {
+                future.completeExceptionally(new RejectedExecutionException("Превышено количество одновременных запросов"));
+                return future;
+            }
+            pending.add(future);
+        }
+        future.whenComplete((result, error) -> pending.remove(future));
+        if (timeout > 0) {
+            future.orTimeout(timeout, unit);
+        }
+        try {
+            executor.execute(() -> {
+                double result = 0;
+                Throwable error = null;
+                boolean started = false;
+                try {
+                    if (!future.isDone()) {
+                        started = true;
+                        // Завершенный извне future служит признаком отмены для цикла интегрирования
+                        result = Functions.integrate(function, leftX, rightX, step, future::isDone);
+                    }
+                } catch (Throwable e) {
+                    error = e;
+                } finally {
+                    // Место освобождается до завершения future, чтобы дождавшийся результата
+                    // вызывающий поток мог сразу отправить следующий запрос
+                    admission.release();
+                }
+                if (!started) {
+                    return;
+                }
+                if (error == null) {
+                    future.complete(result);
+                    return;
+                }
+                future.completeExceptionally(error);
+                if (error instanceof Error) {
+                    throw (Error) error;
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pending.remove(future);
+            admission.release();
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    // Количество принятых и еще не завершившихся запросов
+    public int getPendingCount() {
+        return maxPending - admission.availablePermits();
+    }
+
+    // Незавершенные запросы отменяются: выполняющиеся циклы интегрирования останавливаются
+    // на ближайшей проверке, а запросы из очереди собственного пула освобождают места сразу
+    @Override
+    public void close() {
+        List<CompletableFuture<Double>> cancelled;
+        synchronized (pending) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            cancelled = List.copyOf(pending);
+        }
+        for (CompletableFuture<Double> future : cancelled) {
+            future.cancel(false);
+        }
+        if (ownedExecutor != null) {
+            // Каждая не запущенная задача пула - принятый запрос, занимающий место
+            admission.release(ownedExecutor.shutdownNow().size());
+        }
+    }
+
+    private static ExecutorService newDefaultExecutor() {
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), runnable -> {
+            Thread thread = new Thread(runnable, "integration-service-" + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
@@ -0,0 +1,55 @@
+package threads;
+
+import functions.Function;
+import functions.Functions;
+
+// Неизменяемое задание на интегрирование: в отличие от Task может передаваться
+// между потоками без синхронизации и находиться в очереди в нескольких экземплярах
+public final class IntegrationTask {
+    private final long id;
+    private final Function function;
+    private final double leftBorder;
+    private final double rightBorder;
+    private final double step;
+
+    public IntegrationTask(long id, Function function, double leftBorder, double rightBorder, double step) {
+        if (function == null) {
+            throw new IllegalArgumentException("Функция не может быть null");
+        }
+        this.id = id;
+        this.function = function;
+        this.leftBorder = leftBorder;
+        this.rightBorder = rightBorder;
+        this.step = step;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public Function getFunction() {
+        return function;
+    }
+
+    public double getLeftBorder() {
+        return leftBorder;
+    }
+
+    public double getRightBorder() {
+        return rightBorder;
+    }
+
+    public double getStep() {
+        return step;
+    }
+
+    public double integrate() {
+        return Functions.integrate(function, leftBorder, rightBorder, step);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s на [%.6f, %.6f], шаг=%.6f",
+            function.getClass().getSimpleName(), leftBorder, rightBorder, step);
+    }
+}
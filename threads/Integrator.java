@@ -1,53 +1,142 @@
 package threads;
 import functions.Functions;
+import java.io.IOException;
 import java.util.concurrent.Semaphore;
 
 public class Integrator extends Thread {
     private final Task task;
     private final Semaphore dataReady;
     private final Semaphore dataProcessed;
+    private final ResultSink sink;
+    private volatile PipelineMetrics metrics;
+    private volatile int completedCount;
+    private volatile int failedCount;
+    private volatile CheckpointJournal journal;
 
     public Integrator(Task task, Semaphore dataReady, Semaphore dataProcessed) {
+        this(task, dataReady, dataProcessed, AsyncResultSink.console());
+    }
+
+    public Integrator(Task task, Semaphore dataReady, Semaphore dataProcessed, ResultSink sink) {
         this.task = task;
         this.dataReady = dataReady;
         this.dataProcessed = dataProcessed;
+        this.sink = sink;
+    }
+
+    // Вызывается до start; null - без метрик
+    public void setMetrics(PipelineMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    // Вызывается до start: результаты и ошибки записываются в журнал. null - без журнала
+    public void setJournal(CheckpointJournal journal) {
+        this.journal = journal;
+    }
+
+    public int getCompletedCount() {
+        return completedCount;
+    }
+
+    public int getFailedCount() {
+        return failedCount;
     }
 
+    // Обрабатывает задания до признака конца потока Task.isEndOfStream
     @Override
     public void run() {
-        System.out.println("Integrator: начало работы");
+        sink.message("Integrator: начало работы");
+        PipelineMetrics metrics = this.metrics;
+        CheckpointJournal journal = this.journal;
         
-        for (int i = 0; i < task.getTaskCount(); i++) {
+        for (int i = 0; ; i++) {
+            int taskId = i;
+            boolean integrated = false;
             try {
-                dataReady.acquire();
+                TaskHandoffEvent handoff = new TaskHandoffEvent();
+                handoff.begin();
+                if (metrics == null || !dataReady.tryAcquire()) {
+                    long start = metrics == null ? 0 : System.nanoTime();
+                    dataReady.acquire();
+                    if (metrics != null) {
+                        metrics.integratorWaited(System.nanoTime() - start);
+                    }
+                }
+                handoff.finish("Integrator", i);
                 
                 if (Thread.currentThread().isInterrupted()) {
                     throw new InterruptedException();
                 }
+                if (task.isEndOfStream()) {
+                    break;
+                }
                 
+                taskId = task.getTaskId();
                 double left = task.getLeftBorder();
                 double right = task.getRightBorder();
                 double step = task.getStep();
 
 
+                    long start = metrics == null ? 0 : System.nanoTime();
                     double result = Functions.integrate(task.getFunction(), left, right, step);
-                    System.out.printf("(Integrator %d) на [%.6f, %.6f], шаг=%.6f result = %.6f \n", 
-                        i, left, right, step, result);
+                    if (metrics != null) {
+                        metrics.taskIntegrated(System.nanoTime() - start);
+                    }
+                    completedCount++;
+                    if (journal != null) {
+                        journal = record(journal, taskId, result, false);
+                    }
+                    // Результат учтен до вывода: ошибка вывода не делает задание ошибочным
+                    integrated = true;
+                    sink.taskIntegrated("Integrator", taskId, left, right, step, result);
                 
                 
                 dataProcessed.release();
                 
                 
             } catch (InterruptedException e) {
-                System.out.println("Integrator прерван");
+                sink.message("Integrator прерван");
+                sink.flush();
                 Thread.currentThread().interrupt();
                 return;
-            } catch (IllegalArgumentException e) {
-                System.out.printf("(Integrator %d) ОШИБКА вычисления: %s\n", i, e.getMessage());
-                dataProcessed.release(); 
+            } catch (RuntimeException e) {
+                if (integrated) {
+                    // Задание выполнено и записано в журнал, не удался только вывод результата
+                    dataProcessed.release();
+                    continue;
+                }
+                // Непредвиденное исключение тоже считается ошибкой задания: иначе поток завершился бы,
+                // не освободив dataProcessed, и ожидание конца конвейера не закончилось бы
+                if (metrics != null) {
+                    metrics.taskFailed();
+                }
+                failedCount++;
+                if (journal != null) {
+                    journal = record(journal, taskId, Double.NaN, true);
+                }
+                dataProcessed.release();
+                String message = e instanceof IllegalArgumentException ? e.getMessage() : e.toString();
+                sink.taskFailed("Integrator", taskId, message);
             }
         }
         
-        System.out.println("Integrator: завершение работы");
+        sink.message("Integrator: завершение работы");
+        sink.flush();
+    }
+
+    // Ошибка записи не останавливает вычисления: журнал отключается,
+    // и при повторном запуске незаписанные задания будут выполнены снова
+    private CheckpointJournal record(CheckpointJournal journal, int taskId, double result, boolean failed) {
+        try {
+            if (failed) {
+                journal.recordFailure(taskId);
+            } else {
+                journal.recordResult(taskId, result);
+            }
+            return journal;
+        } catch (IOException | RuntimeException e) {
+            sink.message("Integrator: журнал отключен: " + e.getMessage());
+            return null;
+        }
     }
 }
\ No newline at end of file
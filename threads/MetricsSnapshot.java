@@ -0,0 +1,91 @@
+package threads;
+
+// Значения метрик PipelineMetrics на момент снимка либо их приращения за период (since)
+public final class MetricsSnapshot {
+    private final long timeNanos;
+    private final long generated;
+    private final long integrated;
+    private final long failed;
+    private final int queueDepth;
+    private final long generatorWaitNanos;
+    private final long integratorWaitNanos;
+    private final LatencyHistogram.Snapshot latency;
+    private final long periodNanos;
+
+    MetricsSnapshot(long timeNanos, long generated, long integrated, long failed, int queueDepth,
+                    long generatorWaitNanos, long integratorWaitNanos, LatencyHistogram.Snapshot latency) {
+        this(timeNanos, generated, integrated, failed, queueDepth, generatorWaitNanos, integratorWaitNanos,
+            latency, 0);
+    }
+
+    private MetricsSnapshot(long timeNanos, long generated, long integrated, long failed, int queueDepth,
+                            long generatorWaitNanos, long integratorWaitNanos, LatencyHistogram.Snapshot latency,
+                            long periodNanos) {
+        this.timeNanos = timeNanos;
+        this.generated = generated;
+        this.integrated = integrated;
+        this.failed = failed;
+        this.queueDepth = queueDepth;
+        this.generatorWaitNanos = generatorWaitNanos;
+        this.integratorWaitNanos = integratorWaitNanos;
+        this.latency = latency;
+        this.periodNanos = periodNanos;
+    }
+
+    // Приращения счетчиков и гистограммы после снимка previous; глубина очереди - текущая
+    public MetricsSnapshot since(MetricsSnapshot previous) {
+        return new MetricsSnapshot(timeNanos, generated - previous.generated, integrated - previous.integrated,
+            failed - previous.failed, queueDepth, generatorWaitNanos - previous.generatorWaitNanos,
+            integratorWaitNanos - previous.integratorWaitNanos, latency.minus(previous.latency),
+            timeNanos - previous.timeNanos);
+    }
+
+    public long getGenerated() {
+        return generated;
+    }
+
+    public long getIntegrated() {
+        return integrated;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    public long getGeneratorWaitNanos() {
+        return generatorWaitNanos;
+    }
+
+    public long getIntegratorWaitNanos() {
+        return integratorWaitNanos;
+    }
+
+    public LatencyHistogram.Snapshot getLatency() {
+        return latency;
+    }
+
+    // Длительность периода для снимка, полученного since, иначе 0
+    public long getPeriodNanos() {
+        return periodNanos;
+    }
+
+    // Заданий в секунду за период; NaN для снимка без периода
+    public double getThroughput() {
+        return periodNanos > 0 ? (integrated + failed) * 1e9 / periodNanos : Double.NaN;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("создано=%d проинтегрировано=%d ошибок=%d очередь=%d заданий/с=%.1f "
+                + "ожидание генератора=%.3f мс ожидание интегратора=%.3f мс "
+                + "интегрирование p50=%.3f мкс p99=%.3f мкс p999=%.3f мкс max=%.3f мкс",
+            generated, integrated, failed, queueDepth, getThroughput(),
+            generatorWaitNanos / 1e6, integratorWaitNanos / 1e6,
+            latency.getValueAtQuantile(0.5) / 1e3, latency.getValueAtQuantile(0.99) / 1e3,
+            latency.getValueAtQuantile(0.999) / 1e3, latency.getMaxValue() / 1e3);
+    }
+}
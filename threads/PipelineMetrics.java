@@ -0,0 +1,73 @@
+package threads;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.IntSupplier;
+
+// Метрики конвейера генераторов и интеграторов: счетчики этапов на LongAdder, время ожидания
+// семафоров и очередей, текущая глубина очереди и гистограмма длительности интегрирования.
+// Запись метрики - несколько неконкурентных увеличений счетчиков и два вызова System.nanoTime
+// на задание. Снимок (snapshot) согласован по каждому счетчику, но не между счетчиками.
+public class PipelineMetrics {
+    private final LongAdder generated = new LongAdder();
+    private final LongAdder integrated = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder generatorWaitNanos = new LongAdder();
+    private final LongAdder integratorWaitNanos = new LongAdder();
+    private final LatencyHistogram integrationLatency = new LatencyHistogram();
+    private volatile IntSupplier queueDepth = () -> 0;
+
+    public void taskGenerated() {
+        generated.increment();
+    }
+
+    public void taskIntegrated(long nanos) {
+        integrated.increment();
+        integrationLatency.record(nanos);
+    }
+
+    public void taskFailed() {
+        failed.increment();
+    }
+
+    // Время, проведенное генератором в ожидании места для задания
+    public void generatorWaited(long nanos) {
+        generatorWaitNanos.add(nanos);
+    }
+
+    // Время, проведенное интегратором в ожидании задания
+    public void integratorWaited(long nanos) {
+        integratorWaitNanos.add(nanos);
+    }
+
+    // Источник текущей глубины очереди, например queue::size или семафор dataReady::availablePermits
+    public void setQueueDepth(IntSupplier queueDepth) {
+        this.queueDepth = queueDepth;
+    }
+
+    public MetricsSnapshot snapshot() {
+        return new MetricsSnapshot(System.nanoTime(), generated.sum(), integrated.sum(), failed.sum(),
+            queueDepth.getAsInt(), generatorWaitNanos.sum(), integratorWaitNanos.sum(),
+            integrationLatency.snapshot());
+    }
+
+    // Периодически передает получателю снимок за прошедший период (MetricsSnapshot.since);
+    // возвращенный планировщик останавливается shutdown
+    public ScheduledExecutorService startReporter(long period, TimeUnit unit, Consumer<MetricsSnapshot> reporter) {
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        MetricsSnapshot[] previous = { snapshot() };
+        scheduler.scheduleAtFixedRate(() -> {
+            MetricsSnapshot current = snapshot();
+            reporter.accept(current.since(previous[0]));
+            previous[0] = current;
+        }, period, period, unit);
+        return scheduler;
+    }
+}
@@ -0,0 +1,42 @@
+package threads;
+
+import functions.Function;
+import java.io.PrintStream;
+
+// Синхронный вывод: каждое сообщение форматируется и печатается в вызывающем потоке
+public class PrintStreamResultSink implements ResultSink {
+    private final PrintStream out;
+
+    public PrintStreamResultSink(PrintStream out) {
+        this.out = out;
+    }
+
+    @Override
+    public void taskGenerated(String source, long index, Function function, double leftBorder, double rightBorder,
+                              double step) {
+        out.printf("(%s %d) Создано: %s на [%.6f, %.6f], шаг=%.6f\n",
+            source, index, function.getClass().getSimpleName(), leftBorder, rightBorder, step);
+    }
+
+    @Override
+    public void taskIntegrated(String source, long index, double leftBorder, double rightBorder, double step,
+                               double result) {
+        out.printf("(%s %d) на [%.6f, %.6f], шаг=%.6f result = %.6f \n",
+            source, index, leftBorder, rightBorder, step, result);
+    }
+
+    @Override
+    public void taskFailed(String source, long index, String message) {
+        out.printf("(%s %d) ОШИБКА: %s\n", source, index, message);
+    }
+
+    @Override
+    public void message(String text) {
+        out.println(text);
+    }
+
+    @Override
+    public void flush() {
+        out.flush();
+    }
+}
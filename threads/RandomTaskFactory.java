@@ -0,0 +1,29 @@
+package threads;
+
+import functions.Function;
+import functions.InternedFunctions;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Случайные задания с тем же распределением, что и у Generator
+public class RandomTaskFactory implements TaskFactory {
+    @Override
+    public IntegrationTask createTask(long id) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Function function;
+        switch (random.nextInt(3)) {
+            case 0:
+                function = InternedFunctions.exp();
+                break;
+            case 1:
+                function = InternedFunctions.sin();
+                break;
+            default:
+                function = InternedFunctions.log(1 + random.nextDouble() * 9);
+        }
+
+        double left = random.nextDouble() * 5;
+        double right = left + 1 + random.nextDouble() * 4;
+        double step = 0.01 + random.nextDouble() * 0.1;
+        return new IntegrationTask(id, function, left, right, step);
+    }
+}
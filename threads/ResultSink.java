@@ -0,0 +1,22 @@
+package threads;
+
+import functions.Function;
+
+// Получатель сообщений генераторов и интеграторов. source - имя источника для вывода,
+// например "Integrator", index - номер задания. Реализации должны допускать вызовы
+// из нескольких потоков одновременно
+public interface ResultSink {
+    void taskGenerated(String source, long index, Function function, double leftBorder, double rightBorder,
+                       double step);
+
+    void taskIntegrated(String source, long index, double leftBorder, double rightBorder, double step,
+                        double result);
+
+    void taskFailed(String source, long index, String message);
+
+    // Произвольная строка, например о начале и завершении работы потока
+    void message(String text);
+
+    // Ожидает вывода всех переданных ранее сообщений
+    void flush();
+}
@@ -1,7 +1,7 @@
 package threads;
 
 import functions.Function;
-import functions.basic.Log;
+import functions.InternedFunctions;
 
 import java.util.Random;
 
@@ -9,19 +9,25 @@ public class SimpleGenerator implements Runnable {
     private final Task task;
     private final Random random = new Random();
     private volatile boolean running = true;
+    private final ResultSink sink;
     
     public SimpleGenerator(Task task) {
+        this(task, AsyncResultSink.console());
+    }
+
+    public SimpleGenerator(Task task, ResultSink sink) {
         this.task = task;
+        this.sink = sink;
     }
     
     @Override
     public void run() {
-        System.out.println("SimpleGenerator: начало работы (поток: " + Thread.currentThread().getName() + ")");
+        sink.message("SimpleGenerator: начало работы (поток: " + Thread.currentThread().getName() + ")");
         
         for (int i = 0; i < task.getTaskCount() && running; i++) {
             try {
                 double base = 1.0 + random.nextDouble() * 9.0;
-                Function logFunction = new Log(base);
+                Function logFunction = InternedFunctions.log(base);
                 
                 double left = random.nextDouble() * 100.0;
                 
@@ -34,18 +40,16 @@ public class SimpleGenerator implements Runnable {
                     task.setLeftBorder(left);
                     task.setRightBorder(right);
                     task.setStep(step);
-                    
-
-                    System.out.printf("(SimpleGenerator %d) Задание: левая граница = %.6f, правая граница = %.6f, шаг = %.6f (поток: %s)%n",
-                        i + 1, left, right, step, Thread.currentThread().getName());
                 }
+
+                sink.taskGenerated("SimpleGenerator", i + 1, logFunction, left, right, step);
                 
                 Thread.sleep(5);
                 
             } catch (IllegalArgumentException e) {
-                System.out.println("Ошибка при генерации: " + e.getMessage());
+                sink.taskFailed("SimpleGenerator", i + 1, e.getMessage());
             } catch (InterruptedException e) {
-                System.out.println("SimpleGenerator: прерван во время сна");
+                sink.message("SimpleGenerator: прерван во время сна");
                 Thread.currentThread().interrupt();
                 running = false;
                 break;
@@ -53,10 +57,11 @@ public class SimpleGenerator implements Runnable {
         }
         
         if (running) {
-            System.out.println("Конец simpleThreads (SimpleGenerator завершил работу)");
+            sink.message("Конец simpleThreads (SimpleGenerator завершил работу)");
         } else {
-            System.out.println("SimpleGenerator: работа прервана досрочно");
+            sink.message("SimpleGenerator: работа прервана досрочно");
         }
+        sink.flush();
     }
     
     public void stop() {
@@ -4,14 +4,20 @@ import functions.Functions;
 
 public class SimpleIntegrator implements Runnable {
     private final Task task;
+    private final ResultSink sink;
     
     public SimpleIntegrator(Task task) {
+        this(task, AsyncResultSink.console());
+    }
+
+    public SimpleIntegrator(Task task, ResultSink sink) {
         this.task = task;
+        this.sink = sink;
     }
     
     @Override
     public void run() {
-        System.out.println("SimpleIntegrator: начало работы");
+        sink.message("SimpleIntegrator: начало работы");
         
         for (int i = 0; i < task.getTaskCount(); i++) {
             try {
@@ -26,8 +32,7 @@ public class SimpleIntegrator implements Runnable {
                     
                     double result = Functions.integrate(task.getFunction(), left, right, step);
                     
-                    System.out.printf("(Integrator %d) на [%.4f, %.4f], шаг=%.6f Result=%.6f\n",
-                        i, left, right, step, result);
+                    sink.taskIntegrated("Integrator", i, left, right, step, result);
                     
                     task.setFunction(null);
                     
@@ -36,14 +41,16 @@ public class SimpleIntegrator implements Runnable {
                 
                 
             } catch (InterruptedException e) {
-                System.out.println("SimpleIntegrator прерван");
+                sink.message("SimpleIntegrator прерван");
+                sink.flush();
                 Thread.currentThread().interrupt();
                 return;
             } catch (IllegalArgumentException e) {
-                System.out.printf("(Integrator %d) ОШИБКА: %s\n", i, e.getMessage());
+                sink.taskFailed("Integrator", i, e.getMessage());
             }
         }
         
-        System.out.println("SimpleIntegrator: завершение работы");
+        sink.message("SimpleIntegrator: завершение работы");
+        sink.flush();
     }
 }
\ No newline at end of file
@@ -0,0 +1,191 @@
+package threads;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+// Кольцевой буфер для передачи заданий от одного производителя одному потребителю без блокировок.
+// Ячейки создаются заранее и переиспользуются: производитель занимает номера ячеек (next),
+// заполняет их (get) и публикует (publish), потребитель ждет опубликованные номера (waitFor),
+// читает ячейки и освобождает их (release). Занимать и освобождать можно сразу пачку номеров.
+// Номера растут монотонно, ячейка номера n - slots[n & mask].
+//
+// Методы производителя должны вызываться из одного потока, методы потребителя - из одного
+// другого потока; потоки согласуются только через два счетчика с публикацией release/acquire.
+public class SpscRingBuffer<E> {
+    // Стратегия ожидания свободных или опубликованных ячеек; attempt - номер попытки, начиная с 0
+    public interface WaitStrategy {
+        void idle(int attempt);
+    }
+
+    private static final long PARK_NANOS = 50_000;
+
+    // Активное ожидание: минимальная задержка, занимает ядро целиком
+    public static final WaitStrategy BUSY_SPIN = attempt -> Thread.onSpinWait();
+
+    // Активное ожидание, затем уступка процессора другим потокам
+    public static final WaitStrategy YIELD = attempt -> {
+        if (attempt < 100) {
+            Thread.onSpinWait();
+        } else {
+            Thread.yield();
+        }
+    };
+
+    // Активное ожидание, уступка процессора, затем засыпание на короткое время
+    public static final WaitStrategy PARK = attempt -> {
+        if (attempt < 100) {
+            Thread.onSpinWait();
+        } else if (attempt < 200) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+    };
+
+    private final Object[] slots;
+    private final int mask;
+    private final WaitStrategy waitStrategy;
+
+    // Последний опубликованный номер и последний освобожденный номер
+    private final Sequence published = new Sequence();
+    private final Sequence released = new Sequence();
+
+    // Собственные поля производителя и потребителя: последний занятый номер
+    // и закэшированное значение чужого счетчика, чтобы реже читать его
+    private long claimed = -1;
+    private long cachedReleased = -1;
+    private long cachedPublished = -1;
+
+    public SpscRingBuffer(int capacity, Supplier<? extends E> factory, WaitStrategy waitStrategy) {
+        if (capacity < 1 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Емкость должна быть положительной степенью двойки: " + capacity);
+        }
+        if (waitStrategy == null) {
+            throw new IllegalArgumentException("Стратегия ожидания не может быть null");
+        }
+        this.slots = new Object[capacity];
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = factory.get();
+        }
+        this.mask = capacity - 1;
+        this.waitStrategy = waitStrategy;
+    }
+
+    public int getCapacity() {
+        return slots.length;
+    }
+
+    @SuppressWarnings("unchecked")
+    public E get(long sequence) {
+        return (E) slots[(int) sequence & mask];
+    }
+
+    // ==================== Производитель ====================
+
+    public long next() throws InterruptedException {
+        return next(1);
+    }
+
+    // Занимает count следующих ячеек, ожидая их освобождения, и возвращает последний занятый номер
+    public long next(int count) throws InterruptedException {
+        checkCount(count);
+        long last = claimed + count;
+        long wrapPoint = last - slots.length;
+        int attempt = 0;
+        while (wrapPoint > cachedReleased) {
+            cachedReleased = released.getAcquire();
+            if (wrapPoint <= cachedReleased) {
+                break;
+            }
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            waitStrategy.idle(attempt++);
+        }
+        claimed = last;
+        return last;
+    }
+
+    // Как next(count), но без ожидания; -1, если свободных ячеек недостаточно
+    public long tryNext(int count) {
+        checkCount(count);
+        long last = claimed + count;
+        long wrapPoint = last - slots.length;
+        if (wrapPoint > cachedReleased) {
+            cachedReleased = released.getAcquire();
+            if (wrapPoint > cachedReleased) {
+                return -1;
+            }
+        }
+        claimed = last;
+        return last;
+    }
+
+    // Публикует все занятые ячейки до номера sequence включительно
+    public void publish(long sequence) {
+        published.setRelease(sequence);
+    }
+
+    // ==================== Потребитель ====================
+
+    // Ожидает публикации номера sequence и возвращает последний опубликованный номер (не меньше sequence),
+    // чтобы потребитель мог обработать все готовые ячейки за одно пробуждение
+    public long waitFor(long sequence) throws InterruptedException {
+        int attempt = 0;
+        while (sequence > cachedPublished) {
+            cachedPublished = published.getAcquire();
+            if (sequence <= cachedPublished) {
+                break;
+            }
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            waitStrategy.idle(attempt++);
+        }
+        return cachedPublished;
+    }
+
+    // Последний опубликованный номер без ожидания
+    public long getPublished() {
+        return cachedPublished = published.getAcquire();
+    }
+
+    // Освобождает все ячейки до номера sequence включительно для повторного заполнения
+    public void release(long sequence) {
+        released.setRelease(sequence);
+    }
+
+    private void checkCount(int count) {
+        if (count < 1 || count > slots.length) {
+            throw new IllegalArgumentException("Количество ячеек должно быть от 1 до " + slots.length + ": " + count);
+        }
+    }
+
+    // Счетчик, отделенный от соседних данных, чтобы записи производителя и потребителя
+    // не попадали в одну строку кэша
+    private static final class Sequence {
+        private static final VarHandle VALUE;
+
+        static {
+            try {
+                VALUE = MethodHandles.lookup().findVarHandle(Sequence.class, "value", long.class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        private long p1, p2, p3, p4, p5, p6, p7;
+        private volatile long value = -1;
+        private long p9, p10, p11, p12, p13, p14, p15;
+
+        long getAcquire() {
+            return (long) VALUE.getAcquire(this);
+        }
+
+        void setRelease(long newValue) {
+            VALUE.setRelease(this, newValue);
+        }
+    }
+}
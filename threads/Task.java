@@ -5,11 +5,14 @@ import functions.Function;
 
 public class Task {
     private Function function;
+    private int taskId;
     private double leftBorder;
     private double rightBorder;
     private double step;
     private int taskCount;
     private volatile boolean taskReadyForIntegration = false;
+    // Признак конца потока заданий: слот не содержит задания, интегратор должен завершиться
+    private volatile boolean endOfStream = false;
 
     public Task(int taskCount) {
         this.taskCount = taskCount;
@@ -19,6 +22,14 @@ public class Task {
         this.taskCount = 0;
     }
 
+    public int getTaskId() {
+        return taskId;
+    }
+
+    public void setTaskId(int taskId) {
+        this.taskId = taskId;
+    }
+
     public Function getFunction() {
         return function;
     }
@@ -57,9 +68,17 @@ public class Task {
         this.taskCount = taskCount;
     }
 
-    public double getTaskCount() {
+    public int getTaskCount() {
         return taskCount;
     }
+
+    public void markEndOfStream() {
+        this.endOfStream = true;
+    }
+
+    public boolean isEndOfStream() {
+        return endOfStream;
+    }
     
     public synchronized boolean isTaskReadyForIntegration() {
         return taskReadyForIntegration;
@@ -0,0 +1,84 @@
+package threads;
+
+import functions.Function;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+// Блок заданий, передаваемый между BatchGenerator и BatchIntegrator целиком:
+// синхронизация оплачивается один раз на блок, а не на каждое задание
+public class TaskBatch {
+    private final IntegrationTask[] tasks;
+    private int size;
+
+    public TaskBatch(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Размер блока должен быть положительным: " + capacity);
+        }
+        this.tasks = new IntegrationTask[capacity];
+    }
+
+    public int getCapacity() {
+        return tasks.length;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isFull() {
+        return size == tasks.length;
+    }
+
+    public IntegrationTask get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Индекс " + index + " вне блока из " + size + " заданий");
+        }
+        return tasks[index];
+    }
+
+    public void add(IntegrationTask task) {
+        if (isFull()) {
+            throw new IllegalStateException("Блок заполнен");
+        }
+        tasks[size++] = task;
+    }
+
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            tasks[i] = null;
+        }
+        size = 0;
+    }
+
+    // Переставляет задания так, чтобы задания над одной функцией шли подряд; функции сравниваются
+    // по идентичности, поэтому группировка полна для интернированных функций (InternedFunctions).
+    // Группы идут в порядке первого появления, порядок внутри группы сохраняется
+    public void groupByFunction() {
+        Map<Function, Integer> groups = new IdentityHashMap<>();
+        int[] groupOf = new int[size];
+        for (int i = 0; i < size; i++) {
+            Integer group = groups.get(tasks[i].getFunction());
+            if (group == null) {
+                group = groups.size();
+                groups.put(tasks[i].getFunction(), group);
+            }
+            groupOf[i] = group;
+        }
+        if (groups.size() == 1 || groups.size() == size) {
+            return;
+        }
+        // Сортировка подсчетом по номеру группы
+        int[] start = new int[groups.size() + 1];
+        for (int i = 0; i < size; i++) {
+            start[groupOf[i] + 1]++;
+        }
+        for (int g = 0; g < groups.size(); g++) {
+            start[g + 1] += start[g];
+        }
+        IntegrationTask[] sorted = new IntegrationTask[size];
+        for (int i = 0; i < size; i++) {
+            sorted[start[groupOf[i]]++] = tasks[i];
+        }
+        System.arraycopy(sorted, 0, tasks, 0, size);
+    }
+}
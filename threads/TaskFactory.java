@@ -0,0 +1,6 @@
+package threads;
+
+// Источник заданий для IntegrationPipeline; вызывается одновременно из нескольких потоков
+public interface TaskFactory {
+    IntegrationTask createTask(long id);
+}
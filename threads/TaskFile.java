@@ -0,0 +1,110 @@
+package threads;
+
+import functions.Function;
+import functions.FunctionCodec;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StreamCorruptedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Заранее созданный набор заданий для повторных запусков без затрат на генерацию.
+// Файл: MAGIC, VERSION, количество заданий, границы и шаги всех заданий,
+// затем функции заданий потоком FunctionCodec, где повторяющиеся функции
+// записываются ссылками. Задание с номером id - id-е в файле.
+public class TaskFile implements TaskFactory {
+    public static final int MAGIC = 0x5441534B; // "TASK"
+    public static final int VERSION = 1;
+    // MAGIC, VERSION и количество заданий
+    private static final int HEADER_SIZE = 9;
+    // Наименьший объем задания: границы и шаг, и не меньше байта на функцию в потоке FunctionCodec
+    private static final int MIN_TASK_SIZE = 3 * Double.BYTES + 1;
+
+    private final Function[] functions;
+    private final double[] borders;
+    private final double[] steps;
+
+    private TaskFile(Function[] functions, double[] borders, double[] steps) {
+        this.functions = functions;
+        this.borders = borders;
+        this.steps = steps;
+    }
+
+    // Записывает задания 0..count-1 фабрики; ошибка создания задания прерывает запись
+    public static void write(Path path, TaskFactory factory, int count) throws IOException {
+        if (count < 0) {
+            throw new IllegalArgumentException("Количество заданий не может быть отрицательным: " + count);
+        }
+        IntegrationTask[] tasks = new IntegrationTask[count];
+        for (int i = 0; i < count; i++) {
+            tasks[i] = factory.createTask(i);
+        }
+        try (OutputStream file = new BufferedOutputStream(Files.newOutputStream(path))) {
+            DataOutputStream out = new DataOutputStream(file);
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeInt(count);
+            for (IntegrationTask task : tasks) {
+                out.writeDouble(task.getLeftBorder());
+                out.writeDouble(task.getRightBorder());
+                out.writeDouble(task.getStep());
+            }
+            out.flush();
+            FunctionCodec.Encoder encoder = new FunctionCodec.Encoder(file);
+            for (IntegrationTask task : tasks) {
+                encoder.write(task.getFunction());
+            }
+            encoder.flush();
+        }
+    }
+
+    public static TaskFile read(Path path) throws IOException {
+        try (InputStream file = new BufferedInputStream(Files.newInputStream(path))) {
+            DataInputStream in = new DataInputStream(file);
+            if (in.readInt() != MAGIC) {
+                throw new StreamCorruptedException("Файл не содержит заданий");
+            }
+            int version = in.readUnsignedByte();
+            if (version != VERSION) {
+                throw new StreamCorruptedException("Неподдерживаемая версия формата: " + version);
+            }
+            int count = in.readInt();
+            // Количество проверяется по размеру файла до выделения массивов под задания
+            if (count < 0 || HEADER_SIZE + (long) MIN_TASK_SIZE * count > Files.size(path)) {
+                throw new StreamCorruptedException("Неверное количество заданий: " + count);
+            }
+            double[] borders = new double[2 * count];
+            double[] steps = new double[count];
+            for (int i = 0; i < count; i++) {
+                borders[2 * i] = in.readDouble();
+                borders[2 * i + 1] = in.readDouble();
+                steps[i] = in.readDouble();
+            }
+            // DataInputStream не буферизует, поэтому поток функций начинается сразу после шагов
+            FunctionCodec.Decoder decoder = new FunctionCodec.Decoder(file);
+            Function[] functions = new Function[count];
+            for (int i = 0; i < count; i++) {
+                functions[i] = decoder.read();
+            }
+            return new TaskFile(functions, borders, steps);
+        }
+    }
+
+    public int size() {
+        return functions.length;
+    }
+
+    @Override
+    public IntegrationTask createTask(long id) {
+        if (id < 0 || id >= functions.length) {
+            throw new IllegalArgumentException("Задания " + id + " нет в файле из " + functions.length + " заданий");
+        }
+        int i = (int) id;
+        return new IntegrationTask(id, functions[i], borders[2 * i], borders[2 * i + 1], steps[i]);
+    }
+}
@@ -0,0 +1,29 @@
+package threads;
+
+import functions.FunctionEvents;
+import jdk.jfr.*;
+
+// Событие JFR для передачи задания между Generator и Integrator: длительность - время
+// ожидания семафора, так что долгие события совпадают с простоями конвейера
+@Name(FunctionEvents.TASK_HANDOFF)
+@Label("Task Handoff")
+@Category({"Threads"})
+@Description("Ожидание передачи задания между генератором и интегратором")
+@Threshold("1 ms")
+@StackTrace(false)
+final class TaskHandoffEvent extends Event {
+    @Label("Role")
+    String role;
+
+    @Label("Task Index")
+    long taskIndex;
+
+    void finish(String role, long taskIndex) {
+        end();
+        if (shouldCommit()) {
+            this.role = role;
+            this.taskIndex = taskIndex;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package threads;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// Конвейер Generator -> Task -> Integrator с управляемым завершением. Генератор по окончании
+// заданий (или по запросу остановки) передает через слот признак конца потока, интегратор
+// обрабатывает все переданные до него задания и завершается сам, так что ожидание
+// не требует пауз и прерываний. Прерывание используется только по истечении срока shutdown.
+//
+// С журналом CheckpointJournal и заданным seed прерванный пакет продолжается повторным
+// запуском: генератор воссоздает ту же последовательность заданий и пропускает завершенные.
+public class TaskPipeline {
+    private final Task task;
+    private final Generator generator;
+    private final Integrator integrator;
+    private final Semaphore dataReady;
+    private long startNanos;
+
+    public TaskPipeline(int taskCount) {
+        this(taskCount, AsyncResultSink.console());
+    }
+
+    public TaskPipeline(int taskCount, ResultSink sink) {
+        this(taskCount, sink, null, null);
+    }
+
+    // Задания определяются seed и номером, поэтому пакет можно воссоздать после сбоя
+    public TaskPipeline(int taskCount, ResultSink sink, long seed) {
+        this(taskCount, sink, seed, null);
+    }
+
+    // Задание с номером i - factory.createTask(i); с Workload или TaskFile пакет тоже воспроизводим
+    public TaskPipeline(int taskCount, ResultSink sink, TaskFactory factory) {
+        this(taskCount, sink, null, factory);
+        if (factory == null) {
+            throw new IllegalArgumentException("Фабрика заданий не может быть null");
+        }
+    }
+
+    private TaskPipeline(int taskCount, ResultSink sink, Long seed, TaskFactory factory) {
+        if (taskCount < 0) {
+            throw new IllegalArgumentException("Количество заданий не может быть отрицательным: " + taskCount);
+        }
+        task = new Task(taskCount);
+        dataReady = new Semaphore(0);
+        Semaphore dataProcessed = new Semaphore(1);
+        if (factory != null) {
+            generator = new Generator(task, dataReady, dataProcessed, sink, factory);
+        } else if (seed != null) {
+            generator = new Generator(task, dataReady, dataProcessed, sink, seed);
+        } else {
+            generator = new Generator(task, dataReady, dataProcessed, sink);
+        }
+        integrator = new Integrator(task, dataReady, dataProcessed, sink);
+    }
+
+    // Вызывается до start; null - без метрик
+    public void setMetrics(PipelineMetrics metrics) {
+        if (metrics != null) {
+            metrics.setQueueDepth(dataReady::availablePermits);
+        }
+        generator.setMetrics(metrics);
+        integrator.setMetrics(metrics);
+    }
+
+    // Вызывается до start; журнал закрывает вызывающий после завершения конвейера
+    public void setJournal(CheckpointJournal journal) {
+        generator.setJournal(journal);
+        integrator.setJournal(journal);
+    }
+
+    public void start() {
+        startNanos = System.nanoTime();
+        integrator.start();
+        generator.start();
+    }
+
+    // Ожидает обработки всех заданий
+    public Report awaitCompletion() throws InterruptedException {
+        generator.join();
+        integrator.join();
+        return report();
+    }
+
+    // Прекращает создание заданий и ждет обработки уже переданных не дольше timeout;
+    // по истечении срока потоки прерываются, незавершенные задания считаются брошенными
+    public Report shutdown(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        generator.requestStop();
+        if (!joinUntil(generator, deadline) || !joinUntil(integrator, deadline)) {
+            generator.interrupt();
+            integrator.interrupt();
+            generator.join();
+            integrator.join();
+        }
+        return report();
+    }
+
+    public Generator getGenerator() {
+        return generator;
+    }
+
+    public Integrator getIntegrator() {
+        return integrator;
+    }
+
+    private static boolean joinUntil(Thread thread, long deadline) throws InterruptedException {
+        long remaining = deadline - System.nanoTime();
+        if (remaining > 0) {
+            TimeUnit.NANOSECONDS.timedJoin(thread, remaining);
+        }
+        return !thread.isAlive();
+    }
+
+    private Report report() {
+        return new Report(task.getTaskCount(), generator.getSkippedCount(), generator.getGeneratedCount(),
+            integrator.getCompletedCount(),
+            generator.getFailedCount() + integrator.getFailedCount(), System.nanoTime() - startNanos);
+    }
+
+    // Итог работы конвейера: брошенные задания - не завершенные ни успешно, ни с ошибкой
+    // и не пропущенные по журналу, включая не созданные после запроса остановки
+    public static final class Report {
+        private final int taskCount;
+        private final int skipped;
+        private final int generated;
+        private final int completed;
+        private final int failed;
+        private final long elapsedNanos;
+
+        Report(int taskCount, int skipped, int generated, int completed, int failed, long elapsedNanos) {
+            this.taskCount = taskCount;
+            this.skipped = skipped;
+            this.generated = generated;
+            this.completed = completed;
+            this.failed = failed;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public int getTaskCount() {
+            return taskCount;
+        }
+
+        // Завершенные в предыдущих запусках по журналу
+        public int getSkipped() {
+            return skipped;
+        }
+
+        public int getGenerated() {
+            return generated;
+        }
+
+        public int getCompleted() {
+            return completed;
+        }
+
+        public int getFailed() {
+            return failed;
+        }
+
+        public int getAbandoned() {
+            return taskCount - skipped - completed - failed;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("заданий=%d пропущено=%d создано=%d выполнено=%d с ошибкой=%d брошено=%d за %.3f мс",
+                taskCount, skipped, generated, completed, failed, getAbandoned(), elapsedNanos / 1e6);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package threads;
+
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Структурированный запуск подзадач: владелец порождает подзадачи (fork), дожидается их
+// всех (join) и закрывает область (close), после чего ни одна подзадача уже не выполняется.
+// Первая завершившаяся исключением подзадача отменяет остальные прерыванием их потоков,
+// а join пробрасывает ее исключение. По умолчанию каждая подзадача получает свой
+// виртуальный поток, так что блокирующее чтение входных данных не занимает платформенный поток.
+public class TaskScope implements AutoCloseable {
+    private final ExecutorService executor;
+    private final boolean ownsExecutor;
+    private final Set<Future<?>> running = ConcurrentHashMap.newKeySet();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private volatile boolean shutdown;
+    // Количество подзадач, переданных исполнителю и еще не вышедших из него
+    private int active;
+
+    public TaskScope() {
+        this(VirtualThreads.newPerTaskExecutor(), true);
+    }
+
+    // Исполнитель не закрывается вместе с областью
+    public TaskScope(ExecutorService executor) {
+        this(executor, false);
+    }
+
+    private TaskScope(ExecutorService executor, boolean ownsExecutor) {
+        if (executor == null) {
+            throw new IllegalArgumentException("Исполнитель не может быть null");
+        }
+        this.executor = executor;
+        this.ownsExecutor = ownsExecutor;
+    }
+
+    // Запускает подзадачу; после отмены области подзадача не запускается и возвращается отмененной
+    public <T> Future<T> fork(Callable<T> task) {
+        FutureTask<T> future = new FutureTask<T>(() -> {
+            try {
+                return task.call();
+            } catch (Throwable e) {
+                if (!shutdown && failure.compareAndSet(null, e)) {
+                    shutdown();
+                }
+                throw e;
+            }
+        }) {
+            @Override
+            protected void done() {
+                running.remove(this);
+            }
+        };
+        // Проверка и регистрация под той же блокировкой, что и shutdown: иначе подзадача,
+        // зарегистрированная сразу после обхода running в shutdown, не была бы отменена
+        synchronized (this) {
+            if (shutdown) {
+                future.cancel(false);
+                return future;
+            }
+            running.add(future);
+            active++;
+        }
+        try {
+            // Отмененная до запуска подзадача тоже проходит через исполнитель, чтобы учесть ее выход
+            executor.execute(() -> {
+                try {
+                    future.run();
+                } finally {
+                    finished();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.cancel(false);
+            finished();
+        }
+        return future;
+    }
+
+    public Future<?> fork(Runnable task) {
+        return fork(Executors.callable(task));
+    }
+
+    // Отменяет незавершенные подзадачи и запрещает запуск новых
+    public synchronized void shutdown() {
+        shutdown = true;
+        for (Future<?> future : running) {
+            future.cancel(true);
+        }
+    }
+
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    // Ожидает завершения всех подзадач; ExecutionException - исключение первой неудачной подзадачи
+    public void join() throws InterruptedException, ExecutionException {
+        awaitAll();
+        Throwable cause = failure.get();
+        if (cause != null) {
+            throw new ExecutionException(cause);
+        }
+    }
+
+    // Прерывание не прекращает ожидание: после close ни одна подзадача не выполняется.
+    // Отмененные подзадачи завершаются быстро, а признак прерывания восстанавливается
+    @Override
+    public void close() {
+        shutdown();
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    awaitAll();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } finally {
+            if (ownsExecutor) {
+                executor.shutdownNow();
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private synchronized void finished() {
+        active--;
+        if (active == 0) {
+            notifyAll();
+        }
+    }
+
+    // Отмена подзадачи не ждет ее потока, поэтому ожидание идет по счетчику, а не по Future
+    private synchronized void awaitAll() throws InterruptedException {
+        while (active > 0) {
+            wait();
+        }
+    }
+}
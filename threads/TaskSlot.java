@@ -0,0 +1,46 @@
+package threads;
+
+import functions.Function;
+import functions.Functions;
+
+// Переиспользуемая ячейка задания для SpscRingBuffer: поля без синхронизации,
+// видимость обеспечивается публикацией номера ячейки
+public final class TaskSlot {
+    private long id;
+    private Function function;
+    private double leftBorder;
+    private double rightBorder;
+    private double step;
+
+    public void set(long id, Function function, double leftBorder, double rightBorder, double step) {
+        this.id = id;
+        this.function = function;
+        this.leftBorder = leftBorder;
+        this.rightBorder = rightBorder;
+        this.step = step;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public Function getFunction() {
+        return function;
+    }
+
+    public double getLeftBorder() {
+        return leftBorder;
+    }
+
+    public double getRightBorder() {
+        return rightBorder;
+    }
+
+    public double getStep() {
+        return step;
+    }
+
+    public double integrate() {
+        return Functions.integrate(function, leftBorder, rightBorder, step);
+    }
+}
@@ -0,0 +1,75 @@
+package threads;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Доступ к виртуальным потокам без зависимости от версии JDK при компиляции:
+// на JDK 21 и новее используются Thread.ofVirtual и Executors.newVirtualThreadPerTaskExecutor,
+// на более старых JDK - демонические платформенные потоки с тем же интерфейсом
+public final class VirtualThreads {
+    private static final Method OF_VIRTUAL = findMethod(Thread.class, "ofVirtual");
+    private static final Method PER_TASK_EXECUTOR = findMethod(Executors.class, "newVirtualThreadPerTaskExecutor");
+    // Методы ищутся в открытом интерфейсе Thread.Builder: у класса реализации из JDK
+    // они недоступны для вызова через отражение
+    private static final Method BUILDER_NAME = findBuilderMethod("name", String.class, long.class);
+    private static final Method BUILDER_FACTORY = findBuilderMethod("factory");
+
+    private VirtualThreads() {
+    }
+
+    public static boolean isAvailable() {
+        return OF_VIRTUAL != null && PER_TASK_EXECUTOR != null && BUILDER_NAME != null && BUILDER_FACTORY != null;
+    }
+
+    // Фабрика потоков с именами prefix0, prefix1, ...
+    // Если виртуальные потоки есть, но создать их не удалось, выбрасывается IllegalStateException,
+    // а не используются незаметно платформенные потоки
+    public static ThreadFactory newThreadFactory(String prefix) {
+        if (isAvailable()) {
+            try {
+                Object builder = OF_VIRTUAL.invoke(null);
+                Object named = BUILDER_NAME.invoke(builder, prefix, 0L);
+                return (ThreadFactory) BUILDER_FACTORY.invoke(named);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Не удалось создать фабрику виртуальных потоков", e);
+            }
+        }
+        AtomicLong counter = new AtomicLong();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    // Исполнитель, запускающий каждую задачу в отдельном потоке
+    public static ExecutorService newPerTaskExecutor() {
+        if (isAvailable()) {
+            try {
+                return (ExecutorService) PER_TASK_EXECUTOR.invoke(null);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Не удалось создать исполнитель виртуальных потоков", e);
+            }
+        }
+        return Executors.newCachedThreadPool(newThreadFactory("task-"));
+    }
+
+    private static Method findBuilderMethod(String name, Class<?>... parameterTypes) {
+        try {
+            return Class.forName("java.lang.Thread$Builder").getMethod(name, parameterTypes);
+        } catch (ClassNotFoundException | NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    private static Method findMethod(Class<?> type, String name) {
+        try {
+            return type.getMethod(name);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
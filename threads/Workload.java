@@ -0,0 +1,184 @@
+package threads;
+
+import functions.Function;
+import functions.InternedFunctions;
+import java.util.SplittableRandom;
+
+// Воспроизводимая нагрузка для замеров конвейера. Задание с номером id определяется только seed
+// и id: для каждого задания создается собственный SplittableRandom, поэтому последовательность
+// заданий не зависит от количества потоков, от того, как номера распределены между генераторами,
+// и от порядка вызовов. Общего состояния нет, и фабрику можно вызывать из любого числа потоков.
+//
+// Состав функций задается весами видов (Exp, Sin, Log, дерево из functions.meta), границы
+// и шаг - распределениями. Настройка выполняется до первого createTask.
+public class Workload implements TaskFactory {
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    // Распределение величины; значения берутся из генератора задания
+    public interface Distribution {
+        double sample(SplittableRandom random);
+
+        static Distribution constant(double value) {
+            return random -> value;
+        }
+
+        static Distribution uniform(double min, double max) {
+            checkRange(min, max);
+            return random -> min == max ? min : random.nextDouble(min, max);
+        }
+
+        // Логарифм значения распределен равномерно: подходит для шага, меняющегося на порядки
+        static Distribution logUniform(double min, double max) {
+            if (!(min > 0)) {
+                throw new IllegalArgumentException("Нижняя граница должна быть положительной: " + min);
+            }
+            checkRange(min, max);
+            double logMin = Math.log(min);
+            double logMax = Math.log(max);
+            return random -> logMin == logMax ? min : Math.exp(random.nextDouble(logMin, logMax));
+        }
+    }
+
+    private final long seed;
+    private double expWeight = 1;
+    private double sinWeight = 1;
+    private double logWeight = 1;
+    private double treeWeight = 0;
+    private int treeDepth = 3;
+    // По умолчанию - распределение Generator
+    private Distribution left = Distribution.uniform(0, 5);
+    private Distribution length = Distribution.uniform(1, 5);
+    private Distribution step = Distribution.uniform(0.01, 0.11);
+    private Distribution logBase = Distribution.uniform(1, 10);
+
+    public Workload(long seed) {
+        this.seed = seed;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    // Относительные веса видов функций; сумма весов должна быть положительной
+    public Workload setMix(double exp, double sin, double log, double tree) {
+        if (exp < 0 || sin < 0 || log < 0 || tree < 0 || !(exp + sin + log + tree > 0)) {
+            throw new IllegalArgumentException("Веса должны быть неотрицательными с положительной суммой");
+        }
+        expWeight = exp;
+        sinWeight = sin;
+        logWeight = log;
+        treeWeight = tree;
+        return this;
+    }
+
+    // Наибольшая глубина деревьев из functions.meta; листья - Exp, Sin и Log
+    public Workload setTreeDepth(int depth) {
+        if (depth < 1) {
+            throw new IllegalArgumentException("Глубина дерева должна быть положительной: " + depth);
+        }
+        treeDepth = depth;
+        return this;
+    }
+
+    // Левая граница должна быть неотрицательной: Log определен только для x > 0
+    public Workload setIntervals(Distribution left, Distribution length) {
+        this.left = checkNotNull(left);
+        this.length = checkNotNull(length);
+        return this;
+    }
+
+    public Workload setStep(Distribution step) {
+        this.step = checkNotNull(step);
+        return this;
+    }
+
+    public Workload setLogBase(Distribution logBase) {
+        this.logBase = checkNotNull(logBase);
+        return this;
+    }
+
+    @Override
+    public IntegrationTask createTask(long id) {
+        SplittableRandom random = randomFor(id);
+        Function function = nextFunction(random);
+        double leftBorder = left.sample(random);
+        double rightBorder = leftBorder + length.sample(random);
+        return new IntegrationTask(id, function, leftBorder, rightBorder, step.sample(random));
+    }
+
+    // Генератор задания id: номер перемешивается с seed, так что потоки соседних заданий
+    // не пересекаются, как было бы у new SplittableRandom(seed + id)
+    private SplittableRandom randomFor(long id) {
+        long z = seed + (id + 1) * GOLDEN_GAMMA;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return new SplittableRandom(z ^ (z >>> 31));
+    }
+
+    private Function nextFunction(SplittableRandom random) {
+        double choice = random.nextDouble() * (expWeight + sinWeight + logWeight + treeWeight);
+        if (choice < expWeight) {
+            return InternedFunctions.exp();
+        }
+        choice -= expWeight;
+        if (choice < sinWeight) {
+            return InternedFunctions.sin();
+        }
+        choice -= sinWeight;
+        if (choice < logWeight || treeWeight == 0) {
+            return nextLog(random);
+        }
+        return nextTree(random, treeDepth);
+    }
+
+    // Узлы выбираются так, чтобы дерево было определено на x >= 0: растяжение только
+    // с положительными коэффициентами, сдвиг только по y, целые степени, а внешняя
+    // функция композиции (Sin или Cos) определена и ограничена на всей оси
+    private Function nextTree(SplittableRandom random, int depth) {
+        if (depth == 1 || random.nextInt(4) == 0) {
+            switch (random.nextInt(3)) {
+                case 0:
+                    return InternedFunctions.exp();
+                case 1:
+                    return InternedFunctions.sin();
+                default:
+                    return nextLog(random);
+            }
+        }
+        switch (random.nextInt(6)) {
+            case 0:
+                return InternedFunctions.sum(nextTree(random, depth - 1), nextTree(random, depth - 1));
+            case 1:
+                return InternedFunctions.mult(nextTree(random, depth - 1), nextTree(random, depth - 1));
+            case 2:
+                return InternedFunctions.power(nextTree(random, depth - 1), 2 + random.nextInt(2));
+            case 3:
+                return InternedFunctions.scale(nextTree(random, depth - 1),
+                    random.nextDouble(0.5, 2), random.nextDouble(0.5, 2));
+            case 4:
+                return InternedFunctions.shift(nextTree(random, depth - 1), 0, random.nextDouble(-1, 1));
+            default:
+                Function outer = random.nextBoolean() ? InternedFunctions.sin() : InternedFunctions.cos();
+                // Первый аргумент Composition - внутренняя функция
+                return InternedFunctions.composition(nextTree(random, depth - 1), outer);
+        }
+    }
+
+    private Function nextLog(SplittableRandom random) {
+        return InternedFunctions.log(logBase.sample(random));
+    }
+
+    private static Distribution checkNotNull(Distribution distribution) {
+        if (distribution == null) {
+            throw new IllegalArgumentException("Распределение не может быть null");
+        }
+        return distribution;
+    }
+
+    private static void checkRange(double min, double max) {
+        if (!(min <= max)) {
+            throw new IllegalArgumentException(
+                String.format("Нижняя граница (%.6f) больше верхней (%.6f)", min, max));
+        }
+    }
+}